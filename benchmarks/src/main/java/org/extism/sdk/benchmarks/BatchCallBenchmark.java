@@ -0,0 +1,73 @@
+package org.extism.sdk.benchmarks;
+
+import org.extism.sdk.BatchResult;
+import org.extism.sdk.Plugin;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.PathWasmSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Plugin#callBatch(String, List)} with a loop over {@link Plugin#call(String, byte[])}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchCallBenchmark {
+
+    private static final String FUNCTION = "count_vowels";
+
+    @Param({"1", "16", "256"})
+    public int batchSize;
+
+    private Plugin plugin;
+
+    private List<byte[]> inputs;
+
+    @Setup
+    public void setup() {
+        var source = new PathWasmSource(null, WasmFiles.code().toString(), null);
+        plugin = new Plugin(new Manifest(source), false, null);
+
+        inputs = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            inputs.add(("Hello World " + i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        plugin.free();
+    }
+
+    @Benchmark
+    public void callLoop(Blackhole blackhole) {
+        for (byte[] input : inputs) {
+            blackhole.consume(plugin.call(FUNCTION, input));
+        }
+    }
+
+    @Benchmark
+    public BatchResult callBatch() {
+        return plugin.callBatch(FUNCTION, inputs);
+    }
+}
@@ -0,0 +1,83 @@
+package org.extism.sdk.benchmarks;
+
+import org.extism.sdk.Plugin;
+import org.extism.sdk.PluginFunction;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures call latency and throughput across payload sizes.
+ * Run with {@code -prof gc} to see the allocation rate of each variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallBenchmark {
+
+    private static final String FUNCTION = "count_vowels";
+
+    @Param({"0", "1024", "65536", "1048576"})
+    public int payloadSize;
+
+    private Plugin plugin;
+
+    private PluginFunction function;
+
+    private byte[] input;
+
+    private ByteBuffer directInput;
+
+    @Setup
+    public void setup() {
+        plugin = new Plugin(new Manifest(new WasmSourceResolver().resolve(WasmFiles.code())), false, null);
+        function = plugin.function(FUNCTION);
+
+        input = new byte[payloadSize];
+        Arrays.fill(input, (byte) 'a');
+        directInput = ByteBuffer.allocateDirect(payloadSize).put(input).flip();
+    }
+
+    @TearDown
+    public void tearDown() {
+        plugin.free();
+    }
+
+    @Benchmark
+    public byte[] callBytes() {
+        return plugin.call(FUNCTION, input);
+    }
+
+    @Benchmark
+    public byte[] callDirectBuffer() {
+        return plugin.call(FUNCTION, directInput);
+    }
+
+    @Benchmark
+    public ByteBuffer callForBuffer() {
+        return plugin.callForBuffer(FUNCTION, input);
+    }
+
+    @Benchmark
+    public byte[] callPreparedFunction() {
+        return function.call(input);
+    }
+}
@@ -0,0 +1,80 @@
+package org.extism.sdk.benchmarks;
+
+import org.extism.sdk.ExtismFunction;
+import org.extism.sdk.ExtismRawFunction;
+import org.extism.sdk.HostFunction;
+import org.extism.sdk.HostUserData;
+import org.extism.sdk.LibExtism;
+import org.extism.sdk.Plugin;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a call of {@code code-functions.wasm}, which calls the {@code hello_world} host function once,
+ * with a structure based {@link ExtismFunction} and with an {@link ExtismRawFunction}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostFunctionBenchmark {
+
+    private static final String FUNCTION = "count_vowels";
+
+    private static final byte[] INPUT = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] OUTPUT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private static final LibExtism.ExtismValType[] I64 = {LibExtism.ExtismValType.I64};
+
+    private Plugin structurePlugin;
+
+    private Plugin rawPlugin;
+
+    @Setup
+    public void setup() {
+        var manifest = new Manifest(new WasmSourceResolver().resolve(WasmFiles.codeFunctions()));
+
+        ExtismFunction<HostUserData> structureFunction = (plugin, params, returns, data) ->
+                plugin.returnBytes(returns[0], OUTPUT);
+        structurePlugin = new Plugin(manifest, true, new HostFunction[]{
+                new HostFunction<>("hello_world", I64, I64, structureFunction, Optional.empty())});
+
+        ExtismRawFunction rawFunction = (plugin, params, returns) -> plugin.returnBytes(returns, 0, OUTPUT);
+        rawPlugin = new Plugin(manifest, true, new HostFunction[]{
+                new HostFunction<>("hello_world", I64, I64, rawFunction)});
+    }
+
+    @TearDown
+    public void tearDown() {
+        structurePlugin.free();
+        rawPlugin.free();
+    }
+
+    @Benchmark
+    public byte[] structureHostFunction() {
+        return structurePlugin.call(FUNCTION, INPUT);
+    }
+
+    @Benchmark
+    public byte[] rawHostFunction() {
+        return rawPlugin.call(FUNCTION, INPUT);
+    }
+}
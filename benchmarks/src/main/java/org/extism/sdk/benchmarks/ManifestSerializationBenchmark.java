@@ -0,0 +1,95 @@
+package org.extism.sdk.benchmarks;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.ByteArrayWasmSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of a manifest holding a large {@link ByteArrayWasmSource}.
+ * Compares the compact serializer with and without its cache, and the pretty-printing reflective Gson mapping
+ * the SDK used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ManifestSerializationBenchmark {
+
+    @Param({"1048576", "20971520"})
+    public int moduleSize;
+
+    private ByteArrayWasmSource source;
+
+    private Manifest cachedManifest;
+
+    private Gson reflectiveGson;
+
+    @Setup
+    public void setup() {
+        var data = new byte[moduleSize];
+        new Random(42).nextBytes(data);
+        source = new ByteArrayWasmSource("module", data, null);
+        cachedManifest = new Manifest(source);
+        cachedManifest.toJsonBytes();
+
+        reflectiveGson = new GsonBuilder()
+                .disableHtmlEscaping()
+                .registerTypeHierarchyAdapter(byte[].class, new Base64StringAdapter())
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .setPrettyPrinting()
+                .create();
+    }
+
+    @Benchmark
+    public byte[] compact() {
+        return new Manifest(List.of(source)).toJsonBytes();
+    }
+
+    @Benchmark
+    public byte[] compactCached() {
+        return cachedManifest.toJsonBytes();
+    }
+
+    @Benchmark
+    public byte[] reflectiveGson() {
+        return reflectiveGson.toJson(new Manifest(List.of(source))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Base64StringAdapter extends TypeAdapter<byte[]> {
+
+        @Override
+        public void write(JsonWriter out, byte[] value) throws IOException {
+            out.value(new String(Base64.getEncoder().encode(value)));
+        }
+
+        @Override
+        public byte[] read(JsonReader in) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.extism.sdk.benchmarks;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import org.extism.sdk.ExtismException;
+import org.extism.sdk.LibExtism;
+import org.extism.sdk.LibExtismDirect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call overhead of the interface-mapped {@link LibExtism#INSTANCE}
+ * with the direct-mapped {@link LibExtismDirect} on the call path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NativeBindingBenchmark {
+
+    private static final String FUNCTION = "count_vowels";
+
+    private Pointer plugin;
+
+    private Memory input;
+
+    private long inputLength;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] wasm = Files.readAllBytes(WasmFiles.code());
+        Pointer[] errmsg = new Pointer[1];
+        plugin = LibExtism.INSTANCE.extism_plugin_new(wasm, wasm.length, new Pointer[0], 0, false, errmsg);
+        if (plugin == null) {
+            throw new ExtismException(errmsg[0].getString(0));
+        }
+
+        byte[] data = "Hello World".getBytes(StandardCharsets.UTF_8);
+        input = new Memory(data.length);
+        input.write(0, data, 0, data.length);
+        inputLength = data.length;
+    }
+
+    @TearDown
+    public void tearDown() {
+        LibExtism.INSTANCE.extism_plugin_free(plugin);
+        input.close();
+    }
+
+    @Benchmark
+    public long outputLengthInterfaceMapping() {
+        return LibExtism.INSTANCE.extism_plugin_output_length(plugin);
+    }
+
+    @Benchmark
+    public long outputLengthDirectMapping() {
+        return LibExtismDirect.extism_plugin_output_length(plugin);
+    }
+
+    @Benchmark
+    public Pointer callInterfaceMapping() {
+        LibExtism.INSTANCE.extism_plugin_call(plugin, FUNCTION, input, inputLength);
+        LibExtism.INSTANCE.extism_plugin_output_length(plugin);
+        return LibExtism.INSTANCE.extism_plugin_output_data(plugin);
+    }
+
+    @Benchmark
+    public Pointer callDirectMapping() {
+        LibExtismDirect.extism_plugin_call(plugin, FUNCTION, input, inputLength);
+        LibExtismDirect.extism_plugin_output_length(plugin);
+        return LibExtismDirect.extism_plugin_output_data(plugin);
+    }
+}
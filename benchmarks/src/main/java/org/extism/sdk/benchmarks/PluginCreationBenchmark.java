@@ -0,0 +1,67 @@
+package org.extism.sdk.benchmarks;
+
+import org.extism.sdk.CompiledPlugin;
+import org.extism.sdk.Plugin;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of a plugin from a path, from bytes and from a {@link CompiledPlugin}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginCreationBenchmark {
+
+    private Manifest pathManifest;
+
+    private Manifest bytesManifest;
+
+    private CompiledPlugin compiled;
+
+    @Setup
+    public void setup() throws IOException {
+        var resolver = new WasmSourceResolver();
+        pathManifest = new Manifest(resolver.resolve(WasmFiles.code()));
+        bytesManifest = new Manifest(resolver.resolve("code", Files.readAllBytes(WasmFiles.code())));
+        compiled = new CompiledPlugin(pathManifest, false, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        compiled.free();
+    }
+
+    @Benchmark
+    public void fromPath() {
+        new Plugin(pathManifest, false, null).free();
+    }
+
+    @Benchmark
+    public void fromBytes() {
+        new Plugin(bytesManifest, false, null).free();
+    }
+
+    @Benchmark
+    public void fromCompiled() {
+        compiled.instantiate().free();
+    }
+}
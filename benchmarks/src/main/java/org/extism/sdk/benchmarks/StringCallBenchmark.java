@@ -0,0 +1,78 @@
+package org.extism.sdk.benchmarks;
+
+import com.google.gson.Gson;
+import org.extism.sdk.Codec;
+import org.extism.sdk.Plugin;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Plugin#call(String, String)} with {@link Plugin#call(String, byte[])} for the same input,
+ * and decoding JSON output through a {@link Codec} with parsing the returned string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCallBenchmark {
+
+    private static final String FUNCTION = "count_vowels";
+
+    private static final String INPUT = "Hello World, this is a slightly longer input";
+
+    private final byte[] inputBytes = INPUT.getBytes(StandardCharsets.UTF_8);
+
+    private final Gson gson = new Gson();
+
+    @SuppressWarnings("rawtypes")
+    private final Codec<String, Map> json = Codec.json(String.class, Map.class);
+
+    private Plugin plugin;
+
+    @Setup
+    public void setup() {
+        plugin = new Plugin(new Manifest(new WasmSourceResolver().resolve(WasmFiles.code())), false, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        plugin.free();
+    }
+
+    @Benchmark
+    public String callString() {
+        return plugin.call(FUNCTION, INPUT);
+    }
+
+    @Benchmark
+    public byte[] callBytes() {
+        return plugin.call(FUNCTION, inputBytes);
+    }
+
+    @Benchmark
+    public Map<?, ?> callJsonCodec() {
+        return plugin.call(FUNCTION, INPUT, json);
+    }
+
+    @Benchmark
+    public Map<?, ?> callStringThenParse() {
+        return gson.fromJson(plugin.call(FUNCTION, gson.toJson(INPUT)), Map.class);
+    }
+}
@@ -0,0 +1,24 @@
+package org.extism.sdk.benchmarks;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the Wasm modules used by the benchmarks.
+ * Defaults to the test resources of the SDK, override with {@code -Dextism.wasm.dir=...}.
+ */
+final class WasmFiles {
+
+    private static final String WASM_DIR = System.getProperty("extism.wasm.dir", "../src/test/resources");
+
+    private WasmFiles() {
+    }
+
+    static Path code() {
+        return Paths.get(WASM_DIR, "code.wasm");
+    }
+
+    static Path codeFunctions() {
+        return Paths.get(WASM_DIR, "code-functions.wasm");
+    }
+}
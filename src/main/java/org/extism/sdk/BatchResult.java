@@ -0,0 +1,144 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The outputs of {@link Plugin#callBatch(String, java.util.List)}.
+ * <p>
+ * All outputs are stored back to back in one buffer, indexed by offset. A failed item has no output
+ * and an error message instead, it does not affect the other items.
+ */
+public final class BatchResult {
+
+    private final byte[] data;
+
+    /**
+     * The output of item {@code i} spans {@code offsets[i]} to {@code offsets[i + 1]}
+     */
+    private final int[] offsets;
+
+    private final String[] errors;
+
+    private final int failures;
+
+    private BatchResult(byte[] data, int[] offsets, String[] errors, int failures) {
+        this.data = data;
+        this.offsets = offsets;
+        this.errors = errors;
+        this.failures = failures;
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int size() {
+        return errors.length;
+    }
+
+    /**
+     * @return the number of failed items
+     */
+    public int failureCount() {
+        return failures;
+    }
+
+    /**
+     * @param index the index of the item
+     * @return {@literal true} if the call for the item succeeded
+     */
+    public boolean isSuccess(int index) {
+        return errors[Objects.checkIndex(index, errors.length)] == null;
+    }
+
+    /**
+     * @param index the index of the item
+     * @return the error message of a failed item, or {@literal null} if it succeeded
+     */
+    public String error(int index) {
+        return errors[Objects.checkIndex(index, errors.length)];
+    }
+
+    /**
+     * @param index the index of the item
+     * @return a read-only view of the output of the item, empty if it failed
+     */
+    public ByteBuffer output(int index) {
+        Objects.checkIndex(index, errors.length);
+        return ByteBuffer.wrap(data, offsets[index], offsets[index + 1] - offsets[index]).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @param index the index of the item
+     * @return a copy of the output of the item, empty if it failed
+     */
+    public byte[] outputBytes(int index) {
+        Objects.checkIndex(index, errors.length);
+        return Arrays.copyOfRange(data, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * @return a read-only view of all outputs, back to back
+     */
+    public ByteBuffer outputs() {
+        return ByteBuffer.wrap(data, 0, offsets[errors.length]).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @param index the index of the item, or {@link #size()} for the end of the last output
+     * @return the offset of the output of the item within {@link #outputs()}
+     */
+    public int offset(int index) {
+        return offsets[Objects.checkIndex(index, offsets.length)];
+    }
+
+    /**
+     * Collects the outputs while the batch runs.
+     */
+    static final class Builder {
+
+        private byte[] data = new byte[4096];
+
+        private final int[] offsets;
+
+        private final String[] errors;
+
+        private int count;
+
+        private int failures;
+
+        Builder(int size) {
+            this.offsets = new int[size + 1];
+            this.errors = new String[size];
+        }
+
+        void addOutput(Pointer output, long length) {
+            int end = offsets[count];
+            if (length > Integer.MAX_VALUE - end) {
+                throw new ExtismException("Batch outputs exceed the maximum buffer size");
+            }
+            int newEnd = end + (int) length;
+            if (newEnd > data.length) {
+                data = Arrays.copyOf(data, Math.max(newEnd, (int) Math.min(Integer.MAX_VALUE - 8, data.length * 2L)));
+            }
+            if (length > 0) {
+                output.read(0, data, end, (int) length);
+            }
+            offsets[++count] = newEnd;
+        }
+
+        void addFailure(String error) {
+            errors[count] = error;
+            failures++;
+            offsets[count + 1] = offsets[count];
+            count++;
+        }
+
+        BatchResult build() {
+            return new BatchResult(data, offsets, errors, failures);
+        }
+    }
+}
@@ -13,9 +13,13 @@ public class CancelHandle {
     }
 
     /**
-     * Cancel execution of the Plugin associated with the CancelHandle
+     * Cancel execution of the Plugin associated with the CancelHandle.
+     * The running call fails with an {@link ExtismException}.
+     * This may be called from any thread.
+     *
+     * @return {@literal true} if the cancellation was requested
      */
-    boolean cancel() {
-        return LibExtism.INSTANCE.extism_plugin_cancel(this.handle);
+    public boolean cancel() {
+        return ExtismBackend.INSTANCE.pluginCancel(this.handle);
     }
 }
@@ -0,0 +1,73 @@
+package org.extism.sdk;
+
+import com.google.gson.Gson;
+
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the input of a call to bytes and its output back, see {@link Plugin#call(String, Object, Codec)}.
+ * <p>
+ * Inputs are encoded straight into the plugin's native staging buffer and outputs are decoded straight from
+ * the plugin's output memory, so no intermediate arrays are needed. Codecs must be thread-safe.
+ *
+ * @param <I> the type of the input
+ * @param <O> the type of the output
+ */
+public interface Codec<I, O> {
+
+    /**
+     * Writes the input to the buffer, starting at its position.
+     * If the buffer is too small, throw a {@link BufferOverflowException}, the call is retried with a larger buffer.
+     *
+     * @param value  the input, never {@literal null}
+     * @param target the buffer to write to
+     * @throws BufferOverflowException if the buffer is too small
+     */
+    void encode(I value, ByteBuffer target);
+
+    /**
+     * Reads the output from the buffer, which is only valid during this method.
+     *
+     * @param source a read-only view of the output, between its position and limit
+     * @return the output
+     */
+    O decode(ByteBuffer source);
+
+    /**
+     * Estimates the number of bytes {@link #encode(Object, ByteBuffer)} writes, to avoid retries.
+     *
+     * @param value the input
+     * @return the estimated size, or {@literal 0} if unknown
+     */
+    default long sizeHint(I value) {
+        return 0;
+    }
+
+    /**
+     * @return a codec for UTF-8 strings, malformed input is replaced
+     */
+    static Codec<String, String> utf8() {
+        return Utf8Codec.INSTANCE;
+    }
+
+    /**
+     * @param inputType  the class of the input
+     * @param outputType the class of the output
+     * @return a codec streaming UTF-8 JSON with a default {@link Gson}
+     */
+    static <I, O> Codec<I, O> json(Class<I> inputType, Class<O> outputType) {
+        return new JsonCodec<>(JsonCodec.DEFAULT_GSON, inputType, outputType);
+    }
+
+    /**
+     * @param gson       the instance to map the values with
+     * @param inputType  the type of the input, may be generic
+     * @param outputType the type of the output, may be generic
+     * @return a codec streaming UTF-8 JSON
+     */
+    static <I, O> Codec<I, O> json(Gson gson, Type inputType, Type outputType) {
+        return new JsonCodec<>(gson, inputType, outputType);
+    }
+}
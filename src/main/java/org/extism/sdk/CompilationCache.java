@@ -0,0 +1,236 @@
+package org.extism.sdk;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.WString;
+import org.extism.sdk.manifest.Manifest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Configures the on-disk compilation cache of the runtime.
+ * <p>
+ * libextism reads the location of a Wasmtime cache configuration from the {@code EXTISM_CACHE_CONFIG}
+ * environment variable whenever a plugin is compiled. The JVM cannot modify its own environment,
+ * so the variable is set through the C library, and {@link System#getenv(String)} does not see it.
+ * Setting it is not safe while other threads read the environment, so it is set once, during startup:
+ * the cache cannot be configured any more once the first plugin has been created.
+ *
+ * @see Extism#configureCompilationCache(Path)
+ */
+final class CompilationCache {
+
+    static final String CACHE_CONFIG_VARIABLE = "EXTISM_CACHE_CONFIG";
+
+    /**
+     * The name of the configuration file, written to the cache directory
+     */
+    static final String CONFIG_FILE = "extism-cache.toml";
+
+    /**
+     * The subdirectory holding the compiled modules, kept apart from the configuration which the runtime would
+     * otherwise clean up as an unrecognized file
+     */
+    static final String MODULES_DIRECTORY = "wasmtime";
+
+    private static final AtomicLong HITS = new AtomicLong();
+
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    /**
+     * The cache directory, if configured through this class
+     */
+    private static volatile Path directory;
+
+    /**
+     * Whether the environment variable has been set, guarded by the class
+     */
+    private static boolean configured;
+
+    /**
+     * Whether a plugin has been created, after which the environment must not be modified any more
+     */
+    private static volatile boolean started;
+
+    private CompilationCache() {
+    }
+
+    static synchronized void configure(Path cacheDirectory, long maxSizeBytes) {
+        Objects.requireNonNull(cacheDirectory, "cacheDirectory");
+        if (maxSizeBytes < 0) {
+            throw new IllegalArgumentException("maxSizeBytes must not be negative");
+        }
+        ensureConfigurable();
+
+        try {
+            var cacheDir = Files.createDirectories(cacheDirectory.toAbsolutePath().normalize());
+            var configFile = cacheDir.resolve(CONFIG_FILE);
+            // replaced atomically, other processes sharing the directory may be reading it
+            var tempFile = Files.createTempFile(cacheDir, CONFIG_FILE, ".tmp");
+            try {
+                Files.write(tempFile, toml(cacheDir.resolve(MODULES_DIRECTORY), maxSizeBytes).getBytes(StandardCharsets.UTF_8));
+                Files.move(tempFile, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+            setEnvironmentVariable(CACHE_CONFIG_VARIABLE, configFile.toString());
+            configured = true;
+            directory = cacheDir;
+        } catch (IOException e) {
+            throw new ExtismException("Could not configure compilation cache in " + cacheDirectory, e);
+        }
+    }
+
+    static synchronized void disable() {
+        ensureConfigurable();
+        // an empty value disables the cache
+        setEnvironmentVariable(CACHE_CONFIG_VARIABLE, "");
+        configured = true;
+        directory = null;
+    }
+
+    /**
+     * Invoked before a plugin is created, from then on the cache can no longer be configured.
+     */
+    static void pluginCreated() {
+        if (!started) {
+            // waits for a concurrent configuration to finish setting the variable
+            synchronized (CompilationCache.class) {
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Restores the initial state and removes the environment variable, so tests can configure the cache again.
+     * Only for tests, which do not read the environment concurrently.
+     */
+    static synchronized void reset() {
+        if (configured) {
+            setEnvironmentVariable(CACHE_CONFIG_VARIABLE, null);
+        }
+        configured = false;
+        started = false;
+        directory = null;
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    private static void ensureConfigurable() {
+        if (started) {
+            throw new ExtismException("The compilation cache must be configured before the first plugin is created");
+        }
+        if (configured) {
+            throw new ExtismException("The compilation cache has already been configured");
+        }
+    }
+
+    static void precompile(Manifest manifest, boolean withWASI, HostFunctionLibrary library) {
+        Objects.requireNonNull(manifest, "manifest");
+
+        var cacheDir = directory == null ? null : directory.resolve(MODULES_DIRECTORY);
+        long entriesBefore = cacheDir == null ? -1 : countEntries(cacheDir);
+
+        if (library != null) {
+            library.compile(manifest, withWASI).free();
+        } else {
+            try {
+                new CompiledPlugin(manifest, withWASI, null).free();
+            } catch (ExtismException e) {
+                throw new ExtismException("Could not precompile manifest, modules importing host functions must be "
+                        + "precompiled with their HostFunctionLibrary: " + e.getMessage(), e);
+            }
+        }
+
+        // approximate, concurrent compilations of other modules are counted as well
+        if (cacheDir != null) {
+            if (countEntries(cacheDir) > entriesBefore) {
+                MISSES.incrementAndGet();
+            } else {
+                HITS.incrementAndGet();
+            }
+        }
+    }
+
+    static CompilationCacheStats stats() {
+        return new CompilationCacheStats(directory, HITS.get(), MISSES.get());
+    }
+
+    /**
+     * Renders a Wasmtime cache configuration.
+     *
+     * @param maxSizeBytes the soft limit of the cache size, or {@literal 0} for the runtime default
+     */
+    static String toml(Path cacheDirectory, long maxSizeBytes) {
+        var toml = new StringBuilder()
+                .append("[cache]\n")
+                .append("enabled = true\n")
+                .append("directory = \"")
+                .append(cacheDirectory.toString().replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"\n");
+        if (maxSizeBytes > 0) {
+            toml.append("files-total-size-soft-limit = \"").append(maxSizeBytes).append("\"\n");
+        }
+        return toml.toString();
+    }
+
+    /**
+     * Counts the compiled modules in a cache directory, ignoring the runtime's usage statistics and temporary files.
+     */
+    static long countEntries(Path cacheDirectory) {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> !name.endsWith(".stats") && !name.startsWith(".") && !name.contains(".wip-"))
+                    .count();
+        } catch (IOException e) {
+            throw new ExtismException("Could not read compilation cache in " + cacheDirectory, e);
+        }
+    }
+
+    /**
+     * @param value the value, or {@literal null} to remove the variable
+     */
+    private static void setEnvironmentVariable(String name, String value) {
+        boolean success;
+        if (Platform.isWindows()) {
+            success = Kernel32.INSTANCE.SetEnvironmentVariableW(new WString(name), value == null ? null : new WString(value));
+        } else if (value == null) {
+            success = CLibrary.INSTANCE.unsetenv(name) == 0;
+        } else {
+            success = CLibrary.INSTANCE.setenv(name, value, 1) == 0;
+        }
+        if (!success) {
+            throw new ExtismException("Could not set environment variable " + name);
+        }
+    }
+
+    private interface CLibrary extends Library {
+
+        CLibrary INSTANCE = Native.load(Platform.C_LIBRARY_NAME, CLibrary.class);
+
+        int setenv(String name, String value, int overwrite);
+
+        int unsetenv(String name);
+    }
+
+    private interface Kernel32 extends Library {
+
+        Kernel32 INSTANCE = Native.load("kernel32", Kernel32.class);
+
+        boolean SetEnvironmentVariableW(WString name, WString value);
+    }
+}
@@ -0,0 +1,52 @@
+package org.extism.sdk;
+
+import java.nio.file.Path;
+
+/**
+ * A snapshot of the compilation cache counters.
+ * <p>
+ * Hits and misses are counted by {@link Extism#precompile(org.extism.sdk.manifest.Manifest)} while a cache
+ * directory is configured through {@link Extism#configureCompilationCache(Path)}. They are approximate: a module
+ * counts as a miss when the number of files in the cache grew while it was compiled, so concurrent compilations
+ * and evictions by the runtime skew them.
+ */
+public final class CompilationCacheStats {
+
+    private final Path directory;
+
+    private final long hits;
+
+    private final long misses;
+
+    CompilationCacheStats(Path directory, long hits, long misses) {
+        this.directory = directory;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * @return the configured cache directory, or {@literal null} if the runtime default is used
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return the approximate number of precompiled modules which were already cached
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the approximate number of precompiled modules which had to be compiled
+     */
+    public long misses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "CompilationCacheStats{directory=" + directory + ", hits=" + hits + ", misses=" + misses + '}';
+    }
+}
@@ -0,0 +1,188 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+import org.extism.sdk.manifest.Manifest;
+
+import java.util.Objects;
+
+/**
+ * Represents a compiled Extism plugin.
+ * The Wasm module and host functions are compiled once and can then be instantiated
+ * as many independent {@link Plugin Plugins} as needed without recompiling.
+ */
+public class CompiledPlugin implements AutoCloseable {
+
+    /**
+     * Holds the Extism compiled plugin pointer
+     */
+    private final Pointer compiledPointer;
+
+    /**
+     * Keeps the host function callbacks reachable for as long as instances may call them
+     */
+    private final HostFunction[] functions;
+
+    /**
+     * The library the {@link #functions} were acquired from, if any, released when this plugin is freed
+     */
+    private final HostFunctionLibrary library;
+
+    /**
+     * The hashes of the modules for diagnostics, may be {@literal null}
+     */
+    private final String moduleHashes;
+
+    private final long manifestSize;
+
+    /**
+     * Frees the native compiled plugin when {@link #free() freed} or garbage collected
+     */
+    private final NativeResource resource;
+
+    /**
+     * @param manifestBytes The manifest for the plugin
+     * @param withWASI      Set to true to enable WASI
+     * @param functions     The Host functions for the plugin
+     */
+    public CompiledPlugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions) {
+        this(manifestBytes, withWASI, functions, null);
+    }
+
+    public CompiledPlugin(Manifest manifest, boolean withWASI, HostFunction[] functions) {
+        this(Plugin.serialize(manifest), withWASI, functions, Plugin.moduleHashes(manifest));
+    }
+
+    /**
+     * @param library      The host functions for the plugin, shared with other plugins
+     * @param moduleHashes The hashes of the modules for diagnostics, may be {@literal null}
+     * @see HostFunctionLibrary#compile(Manifest, boolean)
+     */
+    CompiledPlugin(byte[] manifestBytes, boolean withWASI, HostFunctionLibrary library, String moduleHashes) {
+        this(Objects.requireNonNull(manifestBytes, "manifestBytes"), withWASI,
+                Objects.requireNonNull(library, "library").acquire(), library, moduleHashes);
+    }
+
+    private CompiledPlugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions, String moduleHashes) {
+        this(manifestBytes, withWASI, functions, null, moduleHashes);
+    }
+
+    private CompiledPlugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions, HostFunctionLibrary library,
+                           String moduleHashes) {
+
+        Objects.requireNonNull(manifestBytes, "manifestBytes");
+
+        Pointer[] ptrArr = new Pointer[functions == null ? 0 : functions.length];
+
+        if (functions != null)
+            for (int i = 0; i < functions.length; i++) {
+                ptrArr[i] = functions[i].pointer;
+            }
+
+        CompilationCache.pluginCreated();
+
+        var event = new ExtismEvents.Compile();
+        long start = System.nanoTime();
+        event.begin();
+
+        Pointer[] errormsg = new Pointer[1];
+        Pointer p = LibExtism.INSTANCE.extism_compiled_plugin_new(manifestBytes, manifestBytes.length,
+                ptrArr,
+                functions == null ? 0 : functions.length,
+                withWASI,
+                errormsg);
+        if (p == null) {
+            if (functions != null) {
+                for (int i = 0; i < functions.length; i++) {
+                    functions[i].free();
+                }
+            }
+            if (library != null) {
+                library.release();
+            }
+            String msg = errormsg[0].getString(0);
+            LibExtism.INSTANCE.extism_plugin_new_error_free(errormsg[0]);
+            throw new ExtismException(msg);
+        }
+
+        this.functions = functions;
+        this.library = library;
+        this.compiledPointer = p;
+        this.moduleHashes = moduleHashes;
+        this.manifestSize = manifestBytes.length;
+        this.resource = new NativeResource(this, NativeResource.Kind.COMPILED_PLUGIN, manifestBytes.length,
+                release(p, functions, library));
+
+        var listeners = PluginListeners.get();
+        if (listeners.length > 0) {
+            PluginListeners.pluginCompiled(listeners, System.nanoTime() - start);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.moduleHashes = moduleHashes;
+            event.manifestSize = manifestSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * Create a new {@link Plugin} from the compiled module.
+     * Each instance has its own memory and state, but shares the compiled code and host functions.
+     *
+     * @return a new plugin instance
+     * @throws ExtismException if the instantiation fails
+     */
+    public Plugin instantiate() {
+        if (this.resource.isFreed()) {
+            throw new ExtismException("Compiled plugin has been freed");
+        }
+
+        var event = new ExtismEvents.Instantiate();
+        long start = System.nanoTime();
+        event.begin();
+
+        Pointer[] errormsg = new Pointer[1];
+        Pointer p = LibExtism.INSTANCE.extism_plugin_new_from_compiled(this.compiledPointer, errormsg);
+        if (p == null) {
+            String msg = errormsg[0].getString(0);
+            LibExtism.INSTANCE.extism_plugin_new_error_free(errormsg[0]);
+            throw new ExtismException(msg);
+        }
+        Plugin.created(start, event, this.moduleHashes, this.manifestSize, true);
+        return new Plugin(p, this);
+    }
+
+    /**
+     * @return frees the native compiled plugin and its host functions, without referencing the {@link CompiledPlugin}
+     * so it can be cleaned
+     */
+    private static Runnable release(Pointer compiledPointer, HostFunction[] functions, HostFunctionLibrary library) {
+        return () -> {
+            if (functions != null) {
+                for (var function : functions) {
+                    function.free();
+                }
+            }
+            LibExtism.INSTANCE.extism_compiled_plugin_free(compiledPointer);
+            if (library != null) {
+                library.release();
+            }
+        };
+    }
+
+    /**
+     * Frees the compiled plugin from memory.
+     * Plugins already instantiated from it remain usable. Calling it more than once has no further effect.
+     */
+    public void free() {
+        this.resource.free();
+    }
+
+    /**
+     * Calls {@link #free()} if used in the context of a TWR block.
+     */
+    @Override
+    public void close() {
+        free();
+    }
+}
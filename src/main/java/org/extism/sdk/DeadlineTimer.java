@@ -0,0 +1,210 @@
+package org.extism.sdk;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timer wheel which cancels plugin calls on their deadline or when their calling thread is interrupted.
+ * <p>
+ * A single daemon thread serves all calls. Scheduling a deadline only enqueues it, so there is no thread,
+ * {@link java.util.concurrent.ScheduledFuture} or lock per call. Deadlines fire with a precision of one tick.
+ */
+final class DeadlineTimer {
+
+    static final DeadlineTimer INSTANCE = new DeadlineTimer(TimeUnit.MILLISECONDS.toNanos(1), 1024);
+
+    private final long tickNanos;
+
+    private final int mask;
+
+    /**
+     * Deadlines by tick, only accessed by the timer thread
+     */
+    private final ArrayDeque<Deadline>[] wheel;
+
+    /**
+     * Deadlines scheduled since the last tick
+     */
+    private final ConcurrentLinkedQueue<Deadline> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Deadlines of running calls, whose threads are checked for interrupts on every tick
+     */
+    private final Set<Deadline> active = ConcurrentHashMap.newKeySet();
+
+    private final long startNanos = System.nanoTime();
+
+    private long currentTick;
+
+    private volatile Thread thread;
+
+    @SuppressWarnings("unchecked")
+    DeadlineTimer(long tickNanos, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.wheel = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Watches a call made by the current thread.
+     *
+     * @param cancelHandle  cancels the call
+     * @param timeoutNanos  the time after which the call is cancelled, or a negative value to only watch for interrupts,
+     *                      timeouts too large to be reached never fire
+     * @return the deadline, which must be {@link Deadline#complete() completed} when the call returns
+     */
+    Deadline schedule(CancelHandle cancelHandle, long timeoutNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long deadlineTick = timeoutNanos < 0 || timeoutNanos > Long.MAX_VALUE - elapsedNanos - tickNanos
+                ? Long.MAX_VALUE
+                : (elapsedNanos + timeoutNanos + tickNanos - 1) / tickNanos;
+
+        var deadline = new Deadline(cancelHandle, Thread.currentThread(), deadlineTick);
+        active.add(deadline);
+        if (deadlineTick != Long.MAX_VALUE) {
+            pending.add(deadline);
+        }
+
+        var timerThread = this.thread;
+        if (timerThread == null) {
+            timerThread = start();
+        }
+        LockSupport.unpark(timerThread);
+        return deadline;
+    }
+
+    private synchronized Thread start() {
+        if (this.thread == null) {
+            var timerThread = new Thread(this::run, "extism-deadline-timer");
+            timerThread.setDaemon(true);
+            timerThread.start();
+            this.thread = timerThread;
+        }
+        return this.thread;
+    }
+
+    private void run() {
+        while (true) {
+            long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+
+            if (active.isEmpty() && pending.isEmpty()) {
+                LockSupport.park(this);
+                // nothing was watched, skip the idle ticks
+                currentTick = (System.nanoTime() - startNanos) / tickNanos;
+                continue;
+            }
+
+            Deadline deadline;
+            while ((deadline = pending.poll()) != null) {
+                if (deadline.state.get() == Deadline.RUNNING) {
+                    wheel[(int) (Math.max(deadline.deadlineTick, currentTick) & mask)].add(deadline);
+                }
+            }
+
+            if (nowTick - currentTick >= wheel.length) {
+                // after an idle period or a long pause every bucket is due, visit each once instead of every tick
+                for (var bucket : wheel) {
+                    expire(bucket, nowTick);
+                }
+                currentTick = nowTick + 1;
+            } else {
+                while (currentTick <= nowTick) {
+                    expire(wheel[(int) (currentTick & mask)], currentTick);
+                    currentTick++;
+                }
+            }
+
+            for (var watched : active) {
+                if (watched.caller.isInterrupted()) {
+                    watched.fire(Deadline.INTERRUPTED);
+                }
+            }
+
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    private void expire(ArrayDeque<Deadline> bucket, long tick) {
+        Iterator<Deadline> it = bucket.iterator();
+        while (it.hasNext()) {
+            var deadline = it.next();
+            if (deadline.state.get() != Deadline.RUNNING) {
+                it.remove();
+            } else if (deadline.deadlineTick <= tick) {
+                it.remove();
+                deadline.fire(Deadline.EXPIRED);
+            }
+        }
+    }
+
+    /**
+     * The deadline of a single call.
+     */
+    final class Deadline {
+
+        static final int RUNNING = 0;
+        static final int COMPLETED = 1;
+        static final int EXPIRED = 2;
+        static final int INTERRUPTED = 3;
+
+        /**
+         * The timer thread is cancelling the call, the reason is set once the cancel handle returned
+         */
+        static final int FIRING = 4;
+
+        private final CancelHandle cancelHandle;
+
+        private final Thread caller;
+
+        private final long deadlineTick;
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        private Deadline(CancelHandle cancelHandle, Thread caller, long deadlineTick) {
+            this.cancelHandle = cancelHandle;
+            this.caller = caller;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private void fire(int reason) {
+            if (state.compareAndSet(RUNNING, FIRING)) {
+                active.remove(this);
+                try {
+                    cancelHandle.cancel();
+                } finally {
+                    state.set(reason);
+                }
+            }
+        }
+
+        /**
+         * Stops watching the call. If the timer thread is cancelling it, waits until the cancel handle returned,
+         * so the plugin may be freed or called again as soon as this returns.
+         *
+         * @return {@link #COMPLETED} if the call completed before it was cancelled,
+         * otherwise {@link #EXPIRED} or {@link #INTERRUPTED}
+         */
+        int complete() {
+            state.compareAndSet(RUNNING, COMPLETED);
+            active.remove(this);
+            int current;
+            while ((current = state.get()) == FIRING) {
+                // cancelling only signals the running call, so this is brief
+                Thread.onSpinWait();
+            }
+            return current;
+        }
+    }
+}
@@ -47,6 +47,107 @@ public class Extism {
         }
     }
 
+    /**
+     * Store compiled modules in the given directory, so they are not compiled again after a restart.
+     * The runtime reads the configuration from the process environment, which is only modified once,
+     * so call it during startup, before creating any plugin and before other threads read the environment.
+     *
+     * @param cacheDirectory the directory of the cache, created if missing
+     * @throws ExtismException if the cache cannot be configured, has already been configured or a plugin has been created
+     */
+    public static void configureCompilationCache(Path cacheDirectory) {
+        CompilationCache.configure(cacheDirectory, 0);
+    }
+
+    /**
+     * Store compiled modules in the given directory, so they are not compiled again after a restart.
+     * The runtime reads the configuration from the process environment, which is only modified once,
+     * so call it during startup, before creating any plugin and before other threads read the environment.
+     *
+     * @param cacheDirectory the directory of the cache, created if missing
+     * @param maxSizeBytes   the size above which the runtime evicts the least recently used modules
+     * @throws ExtismException if the cache cannot be configured, has already been configured or a plugin has been created
+     */
+    public static void configureCompilationCache(Path cacheDirectory, long maxSizeBytes) {
+        CompilationCache.configure(cacheDirectory, maxSizeBytes);
+    }
+
+    /**
+     * Disable the compilation cache. Like {@link #configureCompilationCache(Path)}, call it once during startup.
+     *
+     * @throws ExtismException if the cache has already been configured or a plugin has been created
+     */
+    public static void disableCompilationCache() {
+        CompilationCache.disable();
+    }
+
+    /**
+     * Compile the modules of the {@link Manifest} into the compilation cache, without instantiating them.
+     * Plugins created from the manifest later on load the compiled code from the cache.
+     *
+     * @param manifest the manifest to compile
+     * @throws ExtismException if the compilation fails
+     * @see #configureCompilationCache(Path)
+     */
+    public static void precompile(Manifest manifest) {
+        CompilationCache.precompile(manifest, false, null);
+    }
+
+    /**
+     * Compile the modules of the {@link Manifest} into the compilation cache, linking them with the host functions
+     * of the library. Required for modules importing host functions.
+     *
+     * @param manifest the manifest to compile
+     * @param library  the host functions imported by the modules
+     * @throws ExtismException if the compilation fails or the library has been closed
+     * @see #configureCompilationCache(Path)
+     */
+    public static void precompile(Manifest manifest, HostFunctionLibrary library) {
+        CompilationCache.precompile(manifest, false, Objects.requireNonNull(library, "library"));
+    }
+
+    /**
+     * @return the approximate hits and misses of {@link #precompile(Manifest)}
+     */
+    public static CompilationCacheStats compilationCacheStats() {
+        return CompilationCache.stats();
+    }
+
+    /**
+     * Register a listener for the metrics of all plugins and host functions.
+     *
+     * @param listener the listener to add
+     */
+    public static void addPluginListener(PluginListener listener) {
+        PluginListeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     * @return {@literal true} if the listener was registered
+     */
+    public static boolean removePluginListener(PluginListener listener) {
+        return PluginListeners.remove(listener);
+    }
+
+    /**
+     * Record the stack trace of each native allocation, so leaks reported to
+     * {@link PluginListener#resourceLeaked(String, Throwable)} show where the resource was created.
+     * Applies to resources created afterwards. Also enabled by the {@code extism.leakDetection} system property.
+     *
+     * @param enabled whether to record allocation stack traces
+     */
+    public static void setLeakDetection(boolean enabled) {
+        NativeResource.setLeakDetection(enabled);
+    }
+
+    /**
+     * @return the number of live native resources and their estimated memory
+     */
+    public static NativeResourceStats nativeResourceStats() {
+        return NativeResource.stats();
+    }
+
     /**
      * Error levels for the Extism logging facility.
      *
@@ -0,0 +1,101 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+
+/**
+ * The native transitions on the hot paths of {@link Plugin}, {@link HostFunction} and {@link ExtismCurrentPlugin}.
+ * <p>
+ * The default implementation uses JNA. On Java 22+ a {@code java.lang.foreign} implementation can be selected
+ * with {@code -Dextism.backend=ffm}. Native handles are represented as JNA {@link Pointer Pointers} on both backends,
+ * so the public API is the same regardless of the backend in use.
+ */
+interface ExtismBackend {
+
+    /**
+     * The backend selected for this JVM.
+     */
+    ExtismBackend INSTANCE = ExtismBackends.load();
+
+    /**
+     * @return the name of the backend, e.g. {@code jna} or {@code ffm}
+     */
+    String name();
+
+    /**
+     * @see LibExtism#extism_plugin_call(Pointer, String, Pointer, long)
+     */
+    int pluginCall(Pointer plugin, String functionName, Pointer data, long dataLength);
+
+    /**
+     * @see LibExtism#extism_plugin_call(Pointer, Pointer, Pointer, long)
+     */
+    int pluginCall(Pointer plugin, Pointer functionName, Pointer data, long dataLength);
+
+    /**
+     * @see LibExtism#extism_plugin_output_length(Pointer)
+     */
+    long pluginOutputLength(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_plugin_output_data(Pointer)
+     */
+    Pointer pluginOutputData(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_plugin_error(Pointer)
+     */
+    String pluginError(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_plugin_reset(Pointer)
+     */
+    boolean pluginReset(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_plugin_function_exists(Pointer, String)
+     */
+    boolean pluginFunctionExists(Pointer plugin, String functionName);
+
+    /**
+     * @see LibExtism#extism_plugin_config(Pointer, byte[], long)
+     */
+    boolean pluginConfig(Pointer plugin, byte[] json);
+
+    /**
+     * @see LibExtism#extism_plugin_cancel_handle(Pointer)
+     */
+    Pointer pluginCancelHandle(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_plugin_cancel(Pointer)
+     */
+    boolean pluginCancel(Pointer cancelHandle);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory(Pointer)
+     */
+    Pointer currentPluginMemory(Pointer currentPlugin);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_alloc(Pointer, long)
+     */
+    long currentPluginMemoryAlloc(Pointer currentPlugin, long n);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_length(Pointer, long)
+     */
+    long currentPluginMemoryLength(Pointer currentPlugin, long offset);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_free(Pointer, long)
+     */
+    void currentPluginMemoryFree(Pointer currentPlugin, long offset);
+
+    /**
+     * Creates a native function which dispatches to the given callback.
+     * The backend must keep whatever native stub it creates reachable from {@code callback}.
+     *
+     * @see LibExtism#extism_function_new(String, int[], long, int[], long, LibExtism.InternalExtismFunction, Pointer, Pointer)
+     */
+    Pointer functionNew(String name, int[] inputs, int[] outputs, HostFunction.Callback<?> callback, Pointer userData);
+}
@@ -0,0 +1,26 @@
+package org.extism.sdk;
+
+/**
+ * Selects the {@link ExtismBackend}.
+ * <p>
+ * This is the Java 11 version which always uses JNA,
+ * the multi-release jar ships a Java 22 version which can select the {@code java.lang.foreign} backend.
+ */
+final class ExtismBackends {
+
+    /**
+     * System property selecting the backend, {@code jna} or {@code ffm}
+     */
+    static final String BACKEND_PROPERTY = "extism.backend";
+
+    private ExtismBackends() {
+    }
+
+    static ExtismBackend load() {
+        var backend = System.getProperty(BACKEND_PROPERTY, "jna");
+        if (!"jna".equals(backend)) {
+            throw new ExtismException("Extism backend '" + backend + "' is not available on Java " + Runtime.version().feature());
+        }
+        return new JnaBackend();
+    }
+}
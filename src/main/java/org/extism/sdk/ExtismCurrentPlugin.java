@@ -2,29 +2,70 @@ package org.extism.sdk;
 
 import com.sun.jna.Pointer;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * The plugin calling a host function.
+ * Instances are reused across host function invocations and are only valid during an invocation.
+ */
 public class ExtismCurrentPlugin {
     public Pointer pointer;
 
+    /**
+     * Base of the plugin memory, cached until the next allocation since that may move the memory
+     */
+    private Pointer memory;
+
+    /**
+     * The {@link #pointer} the cached {@link #memory} belongs to
+     */
+    private Pointer memoryOwner;
+
     public ExtismCurrentPlugin(Pointer pointer) {
         this.pointer = pointer;
     }
 
+    /**
+     * Points this instance at the plugin of a new host function invocation.
+     */
+    void reset(Pointer pointer) {
+        this.pointer = pointer;
+        this.memory = null;
+        this.memoryOwner = null;
+    }
+
+    /**
+     * Returns a pointer to the memory of the plugin.
+     * The pointer is cached and remains valid until the next {@link #alloc(int)}.
+     */
     public Pointer memory() {
-        return LibExtism.INSTANCE.extism_current_plugin_memory(this.pointer);
+        if (this.memory == null || this.memoryOwner != this.pointer) {
+            this.memory = ExtismBackend.INSTANCE.currentPluginMemory(this.pointer);
+            this.memoryOwner = this.pointer;
+        }
+        return this.memory;
     }
 
     public int alloc(int n) {
-        return LibExtism.INSTANCE.extism_current_plugin_memory_alloc(this.pointer, n);
+        return (int) alloc((long) n);
+    }
+
+    private long alloc(long n) {
+        // growing the memory may move it
+        this.memory = null;
+        return ExtismBackend.INSTANCE.currentPluginMemoryAlloc(this.pointer, n);
     }
 
     public void free(long offset) {
-        LibExtism.INSTANCE.extism_current_plugin_memory_free(this.pointer, offset);
+        ExtismBackend.INSTANCE.currentPluginMemoryFree(this.pointer, offset);
     }
 
     public long memoryLength(long offset) {
-        return LibExtism.INSTANCE.extism_current_plugin_memory_length(this.pointer, offset);
+        return ExtismBackend.INSTANCE.currentPluginMemoryLength(this.pointer, offset);
     }
 
     /**
@@ -48,31 +89,119 @@ public class ExtismCurrentPlugin {
         output.v.i64 = offs;
     }
 
+    /**
+     * Return bytes from an {@link ExtismRawFunction}
+     * @param returns - The return values
+     * @param index - The index of the return value to set, which must be an I64
+     * @param b - The buffer to return
+     */
+    public void returnBytes(ExtismValues returns, int index, byte[] b) {
+        returns.setI64(index, writeBytes(b)[0]);
+    }
+
+    /**
+     * Copy several buffers into plugin memory with a single allocation.
+     * The first offset is the handle of the allocated block, the following ones point into that block,
+     * so the guest must read them with explicit lengths.
+     *
+     * @param values - The buffers to write
+     * @return the offset of each buffer in plugin memory
+     */
+    public long[] writeBytes(byte[]... values) {
+        long total = 0;
+        for (byte[] value : values) {
+            total += value.length;
+        }
+
+        long base = this.alloc(total);
+        Pointer mem = this.memory();
+
+        long[] offsets = new long[values.length];
+        long offset = base;
+        for (int i = 0; i < values.length; i++) {
+            offsets[i] = offset;
+            mem.write(offset, values[i], 0, values[i].length);
+            offset += values[i].length;
+        }
+        return offsets;
+    }
+
     /**
      * Get bytes from host function parameter
      * @param input - The input to read
      */
     public byte[] inputBytes(LibExtism.ExtismVal input) {
-        switch (input.t) {
-            case 0:
-                return this.memory()
-                        .getByteArray(input.v.i32,
-                                LibExtism.INSTANCE.extism_current_plugin_memory_length(this.pointer, input.v.i32));
-            case 1:
-                return this.memory()
-                        .getByteArray(input.v.i64,
-                                LibExtism.INSTANCE.extism_current_plugin_memory_length(this.pointer, input.v.i64));
-            default:
-                throw new ExtismException("inputBytes error: ExtismValType " + LibExtism.ExtismValType.values()[input.t] + " not implemtented");
-        }
+        long offset = offset(input);
+        return this.memory().getByteArray(offset, (int) memoryLength(offset));
     }
 
+    /**
+     * Get a view of the memory block passed as host function parameter
+     * @param input - The input to read
+     * @see #byteView(long)
+     */
+    public ByteBuffer inputBuffer(LibExtism.ExtismVal input) {
+        return byteView(offset(input));
+    }
 
     /**
      * Get string from host function parameter
      * @param input - The input to read
      */
     public String inputString(LibExtism.ExtismVal input) {
-        return new String(this.inputBytes(input));
+        return new String(this.inputBytes(input), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a little-endian view of an allocated memory block, without copying it.
+     * The view is only valid during the current host function invocation and until the next {@link #alloc(int)}.
+     *
+     * @param offset - The offset of the block
+     */
+    public ByteBuffer byteView(long offset) {
+        return byteView(offset, memoryLength(offset));
+    }
+
+    /**
+     * Get a little-endian view of plugin memory, without copying it.
+     * The view is only valid during the current host function invocation and until the next {@link #alloc(int)}.
+     *
+     * @param offset - The offset of the view
+     * @param length - The length of the view in bytes
+     */
+    public ByteBuffer byteView(long offset, long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new ExtismException("Memory block of " + length + " bytes is too large for a single buffer");
+        }
+        return this.memory().getByteBuffer(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Get a view of an allocated memory block as 32 bit integers
+     * @param offset - The offset of the block
+     * @see #byteView(long)
+     */
+    public IntBuffer intView(long offset) {
+        return byteView(offset).asIntBuffer();
+    }
+
+    /**
+     * Get a view of an allocated memory block as 32 bit floats
+     * @param offset - The offset of the block
+     * @see #byteView(long)
+     */
+    public FloatBuffer floatView(long offset) {
+        return byteView(offset).asFloatBuffer();
+    }
+
+    private static long offset(LibExtism.ExtismVal input) {
+        switch (input.t) {
+            case 0:
+                return input.v.i32;
+            case 1:
+                return input.v.i64;
+            default:
+                throw new ExtismException("inputBytes error: ExtismValType " + LibExtism.ExtismValType.values()[input.t] + " not implemtented");
+        }
     }
-}
\ No newline at end of file
+}
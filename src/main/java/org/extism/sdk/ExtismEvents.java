@@ -0,0 +1,190 @@
+package org.extism.sdk;
+
+import jdk.jfr.EventType;
+
+/**
+ * The events of plugins and host functions, recorded as {@link JfrEvents Java Flight Recorder events}.
+ * <p>
+ * Runtimes linked without the {@code jdk.jfr} module cannot load the JFR event classes, so they are only
+ * referenced while the module is present. Otherwise the events are never enabled and recording them does nothing.
+ * The events of the call paths are checked with {@link Call#enabled()} and {@link HostFunctionCall#enabled()}
+ * before being created, so nothing is allocated unless they are recorded.
+ */
+final class ExtismEvents {
+
+    /**
+     * Whether the {@code jdk.jfr} module is part of the runtime
+     */
+    static final boolean JFR_AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private ExtismEvents() {
+    }
+
+    static final class Compile {
+
+        private final JfrEvents.Compile event = JFR_AVAILABLE ? new JfrEvents.Compile() : null;
+
+        String moduleHashes;
+
+        long manifestSize;
+
+        void begin() {
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        void end() {
+            if (event != null) {
+                event.end();
+            }
+        }
+
+        boolean shouldCommit() {
+            return event != null && event.shouldCommit();
+        }
+
+        void commit() {
+            if (event != null) {
+                event.moduleHashes = moduleHashes;
+                event.manifestSize = manifestSize;
+                event.commit();
+            }
+        }
+    }
+
+    static final class Instantiate {
+
+        private final JfrEvents.Instantiate event = JFR_AVAILABLE ? new JfrEvents.Instantiate() : null;
+
+        String moduleHashes;
+
+        long manifestSize;
+
+        boolean precompiled;
+
+        void begin() {
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        void end() {
+            if (event != null) {
+                event.end();
+            }
+        }
+
+        boolean shouldCommit() {
+            return event != null && event.shouldCommit();
+        }
+
+        void commit() {
+            if (event != null) {
+                event.moduleHashes = moduleHashes;
+                event.manifestSize = manifestSize;
+                event.precompiled = precompiled;
+                event.commit();
+            }
+        }
+    }
+
+    static final class Call {
+
+        /**
+         * @return whether a recording has enabled the event, without creating it
+         */
+        static boolean enabled() {
+            return JFR_AVAILABLE && EventTypes.CALL.isEnabled();
+        }
+
+        private final JfrEvents.Call event = JFR_AVAILABLE ? new JfrEvents.Call() : null;
+
+        String functionName;
+
+        long inputSize;
+
+        long outputSize;
+
+        boolean success;
+
+        String error;
+
+        void begin() {
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        void end() {
+            if (event != null) {
+                event.end();
+            }
+        }
+
+        boolean shouldCommit() {
+            return event != null && event.shouldCommit();
+        }
+
+        void commit() {
+            if (event != null) {
+                event.functionName = functionName;
+                event.inputSize = inputSize;
+                event.outputSize = outputSize;
+                event.success = success;
+                event.error = error;
+                event.commit();
+            }
+        }
+    }
+
+    static final class HostFunctionCall {
+
+        /**
+         * @return whether a recording has enabled the event, without creating it
+         */
+        static boolean enabled() {
+            return JFR_AVAILABLE && EventTypes.HOST_FUNCTION_CALL.isEnabled();
+        }
+
+        private final JfrEvents.HostFunctionCall event = JFR_AVAILABLE ? new JfrEvents.HostFunctionCall() : null;
+
+        String functionName;
+
+        boolean success;
+
+        void begin() {
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        void end() {
+            if (event != null) {
+                event.end();
+            }
+        }
+
+        boolean shouldCommit() {
+            return event != null && event.shouldCommit();
+        }
+
+        void commit() {
+            if (event != null) {
+                event.functionName = functionName;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * The types of the events checked on the call paths, only loaded while {@code jdk.jfr} is present
+     */
+    private static final class EventTypes {
+
+        static final EventType CALL = EventType.getEventType(JfrEvents.Call.class);
+
+        static final EventType HOST_FUNCTION_CALL = EventType.getEventType(JfrEvents.HostFunctionCall.class);
+    }
+}
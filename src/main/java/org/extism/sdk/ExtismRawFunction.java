@@ -0,0 +1,17 @@
+package org.extism.sdk;
+
+/**
+ * A low-level host function which works directly on the native parameter and return values.
+ * <p>
+ * Unlike {@link ExtismFunction}, no structures are created for the values and the {@link ExtismCurrentPlugin}
+ * and {@link ExtismValues} instances are reused by each thread. They are only valid during the invocation
+ * and must not be retained.
+ */
+@FunctionalInterface
+public interface ExtismRawFunction {
+    void invoke(
+            ExtismCurrentPlugin plugin,
+            ExtismValues params,
+            ExtismValues returns
+    );
+}
@@ -0,0 +1,221 @@
+package org.extism.sdk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Built-in host functions streaming the input and output of a call in chunks, see
+ * {@link Plugin#callStreaming(String, ReadableByteChannel, WritableByteChannel)}.
+ * <p>
+ * The functions are imported from the {@value #NAMESPACE} namespace:
+ * <ul>
+ * <li>{@code read(i64 max) -> i64} returns a memory block holding the next chunk of input of at most {@code max}
+ * bytes, or {@literal 0} at the end of the input.</li>
+ * <li>{@code write(i64 block)} writes the memory block to the output.</li>
+ * </ul>
+ * The guest should free the blocks it read, so memory stays bounded by the chunk size however large the payload is.
+ * <p>
+ * The channels must be blocking: the guest cannot wait for a channel to become ready, so a read or write which
+ * transfers nothing fails the call.
+ */
+public final class ExtismStreams {
+
+    /**
+     * The namespace of the streaming host functions
+     */
+    public static final String NAMESPACE = "extism:stream";
+
+    /**
+     * Upper bound of the chunk size requested by {@code read}
+     */
+    static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final LibExtism.ExtismValType[] I64 = {LibExtism.ExtismValType.I64};
+
+    private static final LibExtism.ExtismValType[] NONE = {};
+
+    /**
+     * The streams of the {@code callStreaming} running on each thread, host functions run on the calling thread
+     */
+    private static final ThreadLocal<StreamContext> CONTEXT = new ThreadLocal<>();
+
+    private ExtismStreams() {
+    }
+
+    /**
+     * Creates the streaming host functions. Like all host functions, they must be passed to a single plugin,
+     * so call this for each plugin.
+     *
+     * @return the {@code read} and {@code write} host functions
+     */
+    public static HostFunction[] hostFunctions() {
+        return new HostFunction[]{
+                new HostFunction<>("read", I64, I64, ExtismStreams::read).withNamespace(NAMESPACE),
+                new HostFunction<>("write", I64, NONE, ExtismStreams::write).withNamespace(NAMESPACE)
+        };
+    }
+
+    /**
+     * Makes the streams available to the host functions while {@code call} runs on the current thread.
+     *
+     * @return the number of bytes written to {@code out}
+     * @throws IOException if reading or writing the streams failed during the call
+     */
+    static long withStreams(Plugin plugin, ReadableByteChannel in, WritableByteChannel out, Runnable call) throws IOException {
+        return withStreams(() -> plugin.cancelHandle().cancel(), in, out, call);
+    }
+
+    /**
+     * @param cancel cancels the call, when reading or writing a stream fails
+     */
+    static long withStreams(Runnable cancel, ReadableByteChannel in, WritableByteChannel out, Runnable call) throws IOException {
+        requireBlocking(in, "in");
+        requireBlocking(out, "out");
+        var context = new StreamContext(cancel, in, out);
+        var previous = CONTEXT.get();
+        CONTEXT.set(context);
+        try {
+            call.run();
+        } catch (ExtismException e) {
+            if (context.failure != null) {
+                // the call was cancelled because of the failure
+                context.failure.addSuppressed(e);
+                throw context.failure;
+            }
+            throw e;
+        } finally {
+            if (previous == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        }
+
+        if (context.failure != null) {
+            throw context.failure;
+        }
+        return context.written;
+    }
+
+    static void read(ExtismCurrentPlugin plugin, ExtismValues params, ExtismValues returns) {
+        var context = context();
+        long max = params.getI64(0);
+        if (context.failure != null || context.eof || max <= 0) {
+            returns.setI64(0, 0);
+            return;
+        }
+
+        var chunk = context.chunk((int) Math.min(max, MAX_CHUNK_SIZE));
+        try {
+            while (chunk.hasRemaining()) {
+                int read = context.in.read(chunk);
+                if (read < 0) {
+                    context.eof = true;
+                    break;
+                }
+                if (read == 0) {
+                    throw new IOException("Input channel returned no data, it must be blocking");
+                }
+            }
+        } catch (IOException e) {
+            context.fail(e);
+        }
+
+        chunk.flip();
+        if (!chunk.hasRemaining()) {
+            returns.setI64(0, 0);
+            return;
+        }
+
+        int offset = plugin.alloc(chunk.remaining());
+        plugin.byteView(offset, chunk.remaining()).put(chunk);
+        returns.setI64(0, offset);
+    }
+
+    static void write(ExtismCurrentPlugin plugin, ExtismValues params, ExtismValues returns) {
+        var context = context();
+        long offset = params.getI64(0);
+        // like the end of input returned by read, 0 is an empty block
+        if (context.failure != null || offset == 0) {
+            return;
+        }
+
+        var block = plugin.byteView(offset);
+        try {
+            while (block.hasRemaining()) {
+                int written = context.out.write(block);
+                if (written == 0) {
+                    throw new IOException("Output channel accepted no data, it must be blocking");
+                }
+                context.written += written;
+            }
+        } catch (IOException e) {
+            context.fail(e);
+        }
+    }
+
+    private static void requireBlocking(Channel channel, String name) {
+        Objects.requireNonNull(channel, name);
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException(name + " must be a blocking channel");
+        }
+    }
+
+    private static StreamContext context() {
+        var context = CONTEXT.get();
+        if (context == null) {
+            throw new ExtismException(NAMESPACE + " functions can only be used by Plugin.callStreaming");
+        }
+        return context;
+    }
+
+    /**
+     * The streams of a single call.
+     */
+    private static final class StreamContext {
+
+        private final Runnable cancel;
+
+        private final ReadableByteChannel in;
+
+        private final WritableByteChannel out;
+
+        /**
+         * Reused for each chunk of input
+         */
+        private ByteBuffer chunk;
+
+        private boolean eof;
+
+        private long written;
+
+        private IOException failure;
+
+        private StreamContext(Runnable cancel, ReadableByteChannel in, WritableByteChannel out) {
+            this.cancel = cancel;
+            this.in = in;
+            this.out = out;
+        }
+
+        private ByteBuffer chunk(int size) {
+            if (chunk == null || chunk.capacity() < size) {
+                chunk = ByteBuffer.allocateDirect(size);
+            }
+            chunk.clear().limit(size);
+            return chunk;
+        }
+
+        /**
+         * Records the failure and cancels the call, the guest cannot handle I/O errors of the host.
+         */
+        private void fail(IOException e) {
+            failure = e;
+            cancel.run();
+        }
+    }
+}
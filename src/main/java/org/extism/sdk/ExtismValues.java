@@ -0,0 +1,132 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+
+import java.util.Objects;
+
+/**
+ * A view over a native array of {@link LibExtism.ExtismVal} passed to an {@link ExtismRawFunction}.
+ * <p>
+ * Values are read and written in place. Setters only write the value, the type of a return value is
+ * determined by the return types of the {@link HostFunction}, so the setter must match it.
+ */
+public final class ExtismValues {
+
+    /**
+     * Size of an {@code ExtismVal}: a 32 bit type tag, padding and a 64 bit union
+     */
+    static final long VAL_SIZE = 16;
+
+    /**
+     * Offset of the union within an {@code ExtismVal}
+     */
+    static final long VALUE_OFFSET = 8;
+
+    private static final LibExtism.ExtismValType[] TYPES = {
+            LibExtism.ExtismValType.I32,
+            LibExtism.ExtismValType.I64,
+            LibExtism.ExtismValType.F32,
+            LibExtism.ExtismValType.F64,
+            LibExtism.ExtismValType.V128,
+            LibExtism.ExtismValType.FuncRef,
+            LibExtism.ExtismValType.ExternRef
+    };
+
+    private Pointer pointer;
+
+    private int length;
+
+    ExtismValues() {
+    }
+
+    /**
+     * Points this view at another native array.
+     */
+    void reset(Pointer pointer, int length) {
+        this.pointer = pointer;
+        this.length = length;
+    }
+
+    /**
+     * @return the number of values
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @param index the index of the value
+     * @return the type of the value
+     */
+    public LibExtism.ExtismValType type(int index) {
+        return TYPES[typeCode(index)];
+    }
+
+    /**
+     * @param index the index of the value
+     * @return the raw type tag of the value, see {@link LibExtism.ExtismValType#v}
+     */
+    public int typeCode(int index) {
+        return pointer.getInt(offset(index));
+    }
+
+    public int getI32(int index) {
+        return pointer.getInt(offset(index) + VALUE_OFFSET);
+    }
+
+    public long getI64(int index) {
+        return pointer.getLong(offset(index) + VALUE_OFFSET);
+    }
+
+    /**
+     * PTR is an alias for I64
+     */
+    public long getPtr(int index) {
+        return getI64(index);
+    }
+
+    public float getF32(int index) {
+        return pointer.getFloat(offset(index) + VALUE_OFFSET);
+    }
+
+    public double getF64(int index) {
+        return pointer.getDouble(offset(index) + VALUE_OFFSET);
+    }
+
+    public void setI32(int index, int value) {
+        pointer.setInt(offset(index) + VALUE_OFFSET, value);
+    }
+
+    public void setI64(int index, long value) {
+        pointer.setLong(offset(index) + VALUE_OFFSET, value);
+    }
+
+    /**
+     * PTR is an alias for I64
+     */
+    public void setPtr(int index, long value) {
+        setI64(index, value);
+    }
+
+    public void setF32(int index, float value) {
+        pointer.setFloat(offset(index) + VALUE_OFFSET, value);
+    }
+
+    public void setF64(int index, double value) {
+        pointer.setDouble(offset(index) + VALUE_OFFSET, value);
+    }
+
+    /**
+     * Copies the values to structures, as expected by {@link ExtismFunction}.
+     */
+    LibExtism.ExtismVal[] toStructures() {
+        if (length == 0) {
+            return new LibExtism.ExtismVal[0];
+        }
+        return (LibExtism.ExtismVal[]) new LibExtism.ExtismVal(pointer).toArray(length);
+    }
+
+    private long offset(int index) {
+        return Objects.checkIndex(index, length) * VAL_SIZE;
+    }
+}
@@ -8,9 +8,9 @@ import java.util.Optional;
 
 public class HostFunction<T extends HostUserData> {
 
-    private final LibExtism.InternalExtismFunction callback;
+    private final Callback<T> callback;
 
-    private boolean freed;
+    private final NativeResource resource;
 
     public final Pointer pointer;
 
@@ -20,23 +20,61 @@ public class HostFunction<T extends HostUserData> {
 
     public final LibExtism.ExtismValType[] returns;
 
+    private final Pointer userData;
+
+    private volatile String namespace;
+
     public HostFunction(String name, LibExtism.ExtismValType[] params, LibExtism.ExtismValType[] returns, ExtismFunction f, Optional<T> userData) {
-        this.freed = false;
+        this(name, params, returns, new Callback<>(f, userData), userData);
+    }
+
+    /**
+     * Create a host function from a low-level {@link ExtismRawFunction}, which reads its parameters and
+     * writes its return values in place instead of going through {@link LibExtism.ExtismVal} structures.
+     */
+    public HostFunction(String name, LibExtism.ExtismValType[] params, LibExtism.ExtismValType[] returns, ExtismRawFunction f) {
+        this(name, params, returns, new Callback<>(f), Optional.empty());
+    }
+
+    private HostFunction(String name, LibExtism.ExtismValType[] params, LibExtism.ExtismValType[] returns, Callback<T> callback, Optional<T> userData) {
+        this(name, params, returns, callback, userData.map(PointerType::getPointer).orElse(null));
+    }
+
+    private HostFunction(String name, LibExtism.ExtismValType[] params, LibExtism.ExtismValType[] returns, Callback<T> callback, Pointer userData) {
         this.name = name;
         this.params = params;
         this.returns = returns;
-        this.callback = new Callback(f, userData);
+        this.callback = callback;
+        this.callback.functionName = name;
+        this.userData = userData;
 
-        this.pointer = LibExtism.INSTANCE.extism_function_new(
+        this.pointer = ExtismBackend.INSTANCE.functionNew(
                 this.name,
                 Arrays.stream(this.params).mapToInt(r -> r.v).toArray(),
-                this.params.length,
                 Arrays.stream(this.returns).mapToInt(r -> r.v).toArray(),
-                this.returns.length,
                 this.callback,
-                userData.map(PointerType::getPointer).orElse(null),
-                null
+                userData
         );
+        this.resource = new NativeResource(this, NativeResource.Kind.HOST_FUNCTION, 0, release(this.pointer));
+    }
+
+    /**
+     * @return frees the native function, without referencing the {@link HostFunction} so it can be cleaned
+     */
+    private static Runnable release(Pointer pointer) {
+        return () -> LibExtism.INSTANCE.extism_function_free(pointer);
+    }
+
+    /**
+     * Creates a new native function sharing the callback of this one, see {@link HostFunctionLibrary}.
+     * A native function is taken by the plugin it is passed to, but its callback and trampoline can be shared.
+     */
+    HostFunction<T> copy() {
+        var copy = new HostFunction<>(name, params, returns, callback, userData);
+        if (namespace != null) {
+            copy.setNamespace(namespace);
+        }
+        return copy;
     }
 
     static void convertOutput(LibExtism.ExtismVal original, LibExtism.ExtismVal fromHostFunction) {
@@ -65,6 +103,7 @@ public class HostFunction<T extends HostUserData> {
     }
 
     public void setNamespace(String name) {
+        this.namespace = name;
         if (this.pointer != null) {
             LibExtism.INSTANCE.extism_function_set_namespace(this.pointer, name);
         }
@@ -75,51 +114,129 @@ public class HostFunction<T extends HostUserData> {
         return this;
     }
 
+    /**
+     * Frees the native function. Calling it more than once, or from several threads, has no further effect.
+     */
     public void free() {
-        if (!this.freed) {
-            LibExtism.INSTANCE.extism_function_free(this.pointer);
-            this.freed = true;
-        }
+        this.resource.free();
     }
 
     static class Callback<T> implements LibExtism.InternalExtismFunction {
-        private final ExtismFunction f;
-        private final Optional<T> userData;
+
+        /**
+         * The reusable views of each thread, see {@link Frame}
+         */
+        private static final ThreadLocal<Frame> FRAMES = ThreadLocal.withInitial(Frame::new);
+
+        private final ExtismRawFunction f;
+
+        /**
+         * Native stub created by the {@link ExtismBackend} for this callback, if it needs one
+         */
+        Object nativeStub;
+
+        /**
+         * Name of the host function, reported to {@link PluginListener PluginListeners}
+         */
+        String functionName;
 
         public Callback(ExtismFunction f, Optional<T> userData) {
+            this(adapt(f, userData));
+        }
+
+        public Callback(ExtismRawFunction f) {
             this.f = f;
-            this.userData = userData;
         }
 
-        @Override
-        public void invoke(Pointer currentPlugin, LibExtism.ExtismVal ins, int nInputs, LibExtism.ExtismVal outs, int nOutputs, Pointer data) {
+        /**
+         * Builds an {@link ExtismFunction} on top of the raw values.
+         */
+        private static <T> ExtismRawFunction adapt(ExtismFunction f, Optional<T> userData) {
+            return (plugin, params, returns) -> {
+                LibExtism.ExtismVal[] inputs = params.toStructures();
+                LibExtism.ExtismVal[] outputs = returns.toStructures();
 
-            LibExtism.ExtismVal[] inputs;
-            LibExtism.ExtismVal[] outputs;
+                f.invoke(plugin, inputs, outputs, userData);
 
-            if (outs == null) {
-                if (nOutputs > 0) {
-                    throw new ExtismException("Output array is null but nOutputs is greater than 0");
+                for (LibExtism.ExtismVal output : outputs) {
+                    convertOutput(output, output);
+                    output.write();
                 }
-                outputs = new LibExtism.ExtismVal[0];
-            } else {
-                outputs = (LibExtism.ExtismVal[]) outs.toArray(nOutputs);
+            };
+        }
+
+        @Override
+        public void invoke(Pointer currentPlugin, Pointer ins, long nInputs, Pointer outs, long nOutputs, Pointer data) {
+
+            if (outs == null && nOutputs > 0) {
+                throw new ExtismException("Output array is null but nOutputs is greater than 0");
+            }
+
+            if (ins == null && nInputs > 0) {
+                throw new ExtismException("Input array is null but nInputs is greater than 0");
+            }
+
+            Frame frame = FRAMES.get();
+            if (frame.active) {
+                // a host function called back into a plugin on the same thread, so the frame is taken
+                frame = new Frame();
             }
 
-            if (ins == null) {
-                if (nInputs > 0) {
-                    throw new ExtismException("Input array is null but nInputs is greater than 0");
+            frame.active = true;
+            try {
+                frame.plugin.reset(currentPlugin);
+                frame.params.reset(ins, (int) nInputs);
+                frame.returns.reset(outs, (int) nOutputs);
+
+                var listeners = PluginListeners.get();
+                if (listeners.length == 0 && !ExtismEvents.HostFunctionCall.enabled()) {
+                    f.invoke(frame.plugin, frame.params, frame.returns);
+                } else {
+                    invokeMeasured(listeners, new ExtismEvents.HostFunctionCall(), frame);
                 }
-                inputs = new LibExtism.ExtismVal[0];
-            } else {
-                inputs = (LibExtism.ExtismVal[]) ins.toArray(nInputs);
+            } finally {
+                frame.plugin.reset(null);
+                frame.params.reset(null, 0);
+                frame.returns.reset(null, 0);
+                frame.active = false;
             }
+        }
 
-            f.invoke(new ExtismCurrentPlugin(currentPlugin), inputs, outputs, userData);
+        private void invokeMeasured(PluginListener[] listeners, ExtismEvents.HostFunctionCall event, Frame frame) {
+            long start = System.nanoTime();
+            event.begin();
+            try {
+                f.invoke(frame.plugin, frame.params, frame.returns);
+            } catch (RuntimeException | Error e) {
+                PluginListeners.hostFunctionFailed(listeners, functionName, e, System.nanoTime() - start);
+                commit(event, false);
+                throw e;
+            }
+            PluginListeners.hostFunctionCalled(listeners, functionName, System.nanoTime() - start);
+            commit(event, true);
+        }
 
-            for (LibExtism.ExtismVal output : outputs) {
-                convertOutput(output, output);
+        private void commit(ExtismEvents.HostFunctionCall event, boolean success) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.functionName = functionName;
+                event.success = success;
+                event.commit();
             }
         }
     }
+
+    /**
+     * The current plugin and values passed to a host function, reused by each thread across invocations.
+     */
+    private static final class Frame {
+
+        private final ExtismCurrentPlugin plugin = new ExtismCurrentPlugin(null);
+
+        private final ExtismValues params = new ExtismValues();
+
+        private final ExtismValues returns = new ExtismValues();
+
+        private boolean active;
+    }
 }
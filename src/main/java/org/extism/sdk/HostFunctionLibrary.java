@@ -0,0 +1,129 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of host functions which can be attached to any number of plugins.
+ * <p>
+ * Extism takes the native function passed to a plugin, so a {@link HostFunction} can only be used once.
+ * The library instead creates a lightweight native function per plugin, bound to a single callback per host function,
+ * so the JNA trampolines or upcall stubs are created once however many plugins use them.
+ * Attaching it to a {@link CompiledPlugin} shares the native functions among all of its instances as well.
+ * <p>
+ * The library is reference-counted: it holds a reference until {@link #close() closed} and each plugin holds one
+ * until freed, the native memory is released with the last reference.
+ */
+public final class HostFunctionLibrary implements AutoCloseable {
+
+    private final HostFunction<?>[] functions;
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param functions the host functions, which must not be passed to a plugin themselves
+     */
+    public HostFunctionLibrary(HostFunction<?>... functions) {
+        Objects.requireNonNull(functions, "functions");
+        this.functions = functions.clone();
+        for (var function : this.functions) {
+            Objects.requireNonNull(function, "function");
+        }
+    }
+
+    /**
+     * Create a plugin using the host functions of this library.
+     *
+     * @param manifest The manifest for the plugin
+     * @param withWASI Set to true to enable WASI
+     * @return a new plugin, which holds a reference to this library until freed
+     * @throws ExtismException if the plugin cannot be created or the library has been closed
+     */
+    public Plugin newPlugin(Manifest manifest, boolean withWASI) {
+        return new Plugin(Plugin.serialize(manifest), withWASI, this, Plugin.moduleHashes(manifest));
+    }
+
+    /**
+     * Compile a plugin using the host functions of this library. Its instances share a single set of native functions,
+     * so use this to pool many instances of the same module, e.g. with {@code new PluginPool(compiled::instantiate, min, max)}.
+     *
+     * @param manifest The manifest for the plugin
+     * @param withWASI Set to true to enable WASI
+     * @return a new compiled plugin, which holds a reference to this library until freed
+     * @throws ExtismException if the plugin cannot be compiled or the library has been closed
+     */
+    public CompiledPlugin compile(Manifest manifest, boolean withWASI) {
+        return new CompiledPlugin(Plugin.serialize(manifest), withWASI, this, Plugin.moduleHashes(manifest));
+    }
+
+    /**
+     * @return the number of host functions
+     */
+    public int size() {
+        return functions.length;
+    }
+
+    /**
+     * @return the number of plugins and compiled plugins using the library, plus one until it is closed
+     */
+    public int referenceCount() {
+        return references.get();
+    }
+
+    /**
+     * Creates the native functions for a new plugin, which must {@link #release()} them once freed.
+     *
+     * @throws ExtismException if the library has already been released
+     */
+    HostFunction[] acquire() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                throw new ExtismException("Host function library has been closed");
+            }
+        } while (!references.compareAndSet(count, count + 1));
+
+        var copies = new HostFunction[functions.length];
+        try {
+            for (int i = 0; i < functions.length; i++) {
+                copies[i] = functions[i].copy();
+            }
+        } catch (RuntimeException | Error e) {
+            for (var copy : copies) {
+                if (copy != null) {
+                    copy.free();
+                }
+            }
+            release();
+            throw e;
+        }
+        return copies;
+    }
+
+    /**
+     * Drops a reference, the native functions are freed with the last one.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            for (var function : functions) {
+                function.free();
+            }
+        }
+    }
+
+    /**
+     * Drops the reference held by the library itself, plugins using it remain usable.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+}
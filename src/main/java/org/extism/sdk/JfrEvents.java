@@ -0,0 +1,98 @@
+package org.extism.sdk;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events of plugins and host functions.
+ * <p>
+ * The events are enabled in the default JFR configurations. Calls and host functions are only recorded
+ * above their threshold, which can be changed in the recording settings like for the built-in events,
+ * e.g. {@code org.extism.sdk.Call#threshold=10 ms}.
+ * <p>
+ * Only loaded through {@link ExtismEvents} when the {@code jdk.jfr} module is present.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    @Name("org.extism.sdk.Compile")
+    @Label("Extism Compile")
+    @Category("Extism")
+    @Description("Compilation of a plugin by a CompiledPlugin")
+    @StackTrace(false)
+    static final class Compile extends Event {
+
+        @Label("Module Hashes")
+        String moduleHashes;
+
+        @Label("Manifest Size")
+        @DataAmount
+        long manifestSize;
+    }
+
+    @Name("org.extism.sdk.Instantiate")
+    @Label("Extism Instantiate")
+    @Category("Extism")
+    @Description("Creation of a plugin instance")
+    @StackTrace(false)
+    static final class Instantiate extends Event {
+
+        @Label("Module Hashes")
+        String moduleHashes;
+
+        @Label("Manifest Size")
+        @DataAmount
+        long manifestSize;
+
+        @Label("Precompiled")
+        @Description("Whether the plugin was instantiated from a CompiledPlugin")
+        boolean precompiled;
+    }
+
+    @Name("org.extism.sdk.Call")
+    @Label("Extism Call")
+    @Category("Extism")
+    @Description("Call of a function exported by a plugin")
+    @Threshold("1 ms")
+    static final class Call extends Event {
+
+        @Label("Function")
+        String functionName;
+
+        @Label("Input Size")
+        @DataAmount
+        long inputSize;
+
+        @Label("Output Size")
+        @DataAmount
+        long outputSize;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("org.extism.sdk.HostFunctionCall")
+    @Label("Extism Host Function Call")
+    @Category("Extism")
+    @Description("Call of a host function by a plugin")
+    @Threshold("1 ms")
+    static final class HostFunctionCall extends Event {
+
+        @Label("Function")
+        String functionName;
+
+        @Label("Success")
+        boolean success;
+    }
+}
@@ -0,0 +1,99 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+
+/**
+ * {@link ExtismBackend} using JNA.
+ * The call path uses the direct-mapped {@link LibExtismDirect}, everything else the interface-mapped {@link LibExtism}.
+ */
+final class JnaBackend implements ExtismBackend {
+
+    @Override
+    public String name() {
+        return "jna";
+    }
+
+    @Override
+    public int pluginCall(Pointer plugin, String functionName, Pointer data, long dataLength) {
+        return LibExtismDirect.extism_plugin_call(plugin, functionName, data, dataLength);
+    }
+
+    @Override
+    public int pluginCall(Pointer plugin, Pointer functionName, Pointer data, long dataLength) {
+        return LibExtismDirect.extism_plugin_call(plugin, functionName, data, dataLength);
+    }
+
+    @Override
+    public long pluginOutputLength(Pointer plugin) {
+        return LibExtismDirect.extism_plugin_output_length(plugin);
+    }
+
+    @Override
+    public Pointer pluginOutputData(Pointer plugin) {
+        return LibExtismDirect.extism_plugin_output_data(plugin);
+    }
+
+    @Override
+    public String pluginError(Pointer plugin) {
+        return LibExtismDirect.extism_plugin_error(plugin);
+    }
+
+    @Override
+    public boolean pluginReset(Pointer plugin) {
+        return LibExtism.INSTANCE.extism_plugin_reset(plugin);
+    }
+
+    @Override
+    public boolean pluginFunctionExists(Pointer plugin, String functionName) {
+        return LibExtism.INSTANCE.extism_plugin_function_exists(plugin, functionName);
+    }
+
+    @Override
+    public boolean pluginConfig(Pointer plugin, byte[] json) {
+        return LibExtism.INSTANCE.extism_plugin_config(plugin, json, json.length);
+    }
+
+    @Override
+    public Pointer pluginCancelHandle(Pointer plugin) {
+        return LibExtism.INSTANCE.extism_plugin_cancel_handle(plugin);
+    }
+
+    @Override
+    public boolean pluginCancel(Pointer cancelHandle) {
+        return LibExtism.INSTANCE.extism_plugin_cancel(cancelHandle);
+    }
+
+    @Override
+    public Pointer currentPluginMemory(Pointer currentPlugin) {
+        return LibExtismDirect.extism_current_plugin_memory(currentPlugin);
+    }
+
+    @Override
+    public long currentPluginMemoryAlloc(Pointer currentPlugin, long n) {
+        return LibExtismDirect.extism_current_plugin_memory_alloc(currentPlugin, n);
+    }
+
+    @Override
+    public long currentPluginMemoryLength(Pointer currentPlugin, long offset) {
+        return LibExtismDirect.extism_current_plugin_memory_length(currentPlugin, offset);
+    }
+
+    @Override
+    public void currentPluginMemoryFree(Pointer currentPlugin, long offset) {
+        LibExtismDirect.extism_current_plugin_memory_free(currentPlugin, offset);
+    }
+
+    @Override
+    public Pointer functionNew(String name, int[] inputs, int[] outputs, HostFunction.Callback<?> callback, Pointer userData) {
+        return LibExtism.INSTANCE.extism_function_new(
+                name,
+                inputs,
+                inputs.length,
+                outputs,
+                outputs.length,
+                callback,
+                userData,
+                null
+        );
+    }
+}
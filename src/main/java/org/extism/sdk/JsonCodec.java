@@ -0,0 +1,187 @@
+package org.extism.sdk;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Streams values as UTF-8 JSON with Gson, without building an intermediate {@link String} or array.
+ */
+final class JsonCodec<I, O> implements Codec<I, O> {
+
+    static final Gson DEFAULT_GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private static final ThreadLocal<EncodingWriter> WRITER = ThreadLocal.withInitial(EncodingWriter::new);
+
+    private static final ThreadLocal<DecodingReader> READER = ThreadLocal.withInitial(DecodingReader::new);
+
+    private final Gson gson;
+
+    private final Type inputType;
+
+    private final Type outputType;
+
+    JsonCodec(Gson gson, Type inputType, Type outputType) {
+        this.gson = Objects.requireNonNull(gson, "gson");
+        this.inputType = Objects.requireNonNull(inputType, "inputType");
+        this.outputType = Objects.requireNonNull(outputType, "outputType");
+    }
+
+    @Override
+    public void encode(I value, ByteBuffer target) {
+        var writer = WRITER.get().reset(target);
+        try {
+            gson.toJson(value, inputType, gson.newJsonWriter(writer));
+        } catch (IOException e) {
+            // only declared, the writer does not throw it
+            throw new ExtismException("Failed to encode " + inputType, e);
+        }
+        writer.finish();
+    }
+
+    @Override
+    public O decode(ByteBuffer source) {
+        var reader = READER.get().reset(source);
+        return gson.fromJson(gson.newJsonReader(reader), outputType);
+    }
+
+    /**
+     * Encodes characters into a buffer, throwing {@link BufferOverflowException} when it is full.
+     */
+    static final class EncodingWriter extends Writer {
+
+        private final CharsetEncoder encoder = Utf8Codec.newEncoder();
+
+        private final CharBuffer chars = CharBuffer.allocate(2048);
+
+        private ByteBuffer target;
+
+        EncodingWriter reset(ByteBuffer target) {
+            this.target = target;
+            this.encoder.reset();
+            this.chars.clear();
+            return this;
+        }
+
+        @Override
+        public void write(int c) {
+            if (!chars.hasRemaining()) {
+                drain(false);
+            }
+            chars.put((char) c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            while (length > 0) {
+                if (!chars.hasRemaining()) {
+                    drain(false);
+                }
+                int n = Math.min(length, chars.remaining());
+                chars.put(buffer, offset, n);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void write(String s, int offset, int length) {
+            while (length > 0) {
+                if (!chars.hasRemaining()) {
+                    drain(false);
+                }
+                int n = Math.min(length, chars.remaining());
+                s.getChars(offset, offset + n, chars.array(), chars.position());
+                chars.position(chars.position() + n);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        /**
+         * Encodes the buffered characters, keeping an unpaired high surrogate for the next write.
+         */
+        private void drain(boolean endOfInput) {
+            chars.flip();
+            check(encoder.encode(chars, target, endOfInput));
+            chars.compact();
+        }
+
+        void finish() {
+            drain(true);
+            check(encoder.flush(target));
+            target = null;
+        }
+
+        private static void check(CoderResult result) {
+            if (result.isOverflow()) {
+                throw new BufferOverflowException();
+            }
+        }
+
+        @Override
+        public void flush() {
+            // encoded when full or finished
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Decodes characters from a buffer.
+     */
+    static final class DecodingReader extends Reader {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private ByteBuffer source;
+
+        private boolean endOfInput;
+
+        DecodingReader reset(ByteBuffer source) {
+            this.source = source.duplicate();
+            this.endOfInput = false;
+            this.decoder.reset();
+            return this;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            var out = CharBuffer.wrap(buffer, offset, length);
+            if (!endOfInput) {
+                decoder.decode(source, out, true);
+                endOfInput = !source.hasRemaining();
+            }
+            if (endOfInput) {
+                decoder.flush(out);
+            }
+            int n = out.position() - offset;
+            return n == 0 && endOfInput ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+            source = null;
+        }
+    }
+}
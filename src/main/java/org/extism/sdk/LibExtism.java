@@ -16,10 +16,10 @@ public interface LibExtism extends Library {
     interface InternalExtismFunction extends Callback {
         void invoke(
                 Pointer currentPlugin,
-                ExtismVal inputs,
-                int nInputs,
-                ExtismVal outputs,
-                int nOutputs,
+                Pointer inputs,
+                long nInputs,
+                Pointer outputs,
+                long nOutputs,
                 Pointer data
         );
     }
@@ -28,6 +28,14 @@ public interface LibExtism extends Library {
     class ExtismVal extends Structure {
         public int t;
         public ExtismValUnion v;
+
+        public ExtismVal() {
+        }
+
+        public ExtismVal(Pointer p) {
+            super(p);
+            read();
+        }
     }
     class ExtismValUnion extends Union {
         public int i32;
@@ -57,9 +65,9 @@ public interface LibExtism extends Library {
 
     Pointer extism_function_new(String name,
                                 int[] inputs,
-                                int nInputs,
+                                long nInputs,
                                 int[] outputs,
-                                int nOutputs,
+                                long nOutputs,
                                 InternalExtismFunction func,
                                 Pointer userData,
                                 Pointer freeUserData);
@@ -71,7 +79,7 @@ public interface LibExtism extends Library {
      * Get the length of an allocated block
      * NOTE: this should only be called from host functions.
      */
-    int extism_current_plugin_memory_length(Pointer plugin, long n);
+    long extism_current_plugin_memory_length(Pointer plugin, long n);
 
     /**
      * Returns a pointer to the memory of the currently running plugin
@@ -83,7 +91,7 @@ public interface LibExtism extends Library {
      * Allocate a memory block in the currently running plugin
      * NOTE: this should only be called from host functions.
      */
-    int extism_current_plugin_memory_alloc(Pointer plugin, long n);
+    long extism_current_plugin_memory_alloc(Pointer plugin, long n);
 
     /**
      * Free an allocated memory block
@@ -119,8 +127,35 @@ public interface LibExtism extends Library {
      * @param errmsg         get the error message if the return value is null
      * @return pointer to the plugin, or null in case of error
      */
-    Pointer extism_plugin_new(byte[] wasm, long wasmSize, Pointer[] functions, int nFunctions, boolean withWASI, Pointer[] errmsg);
-    Pointer extism_plugin_new_with_fuel_limit(byte[] wasm, long wasmSize, Pointer[] functions, int nFunctions, boolean withWASI, long fuelLimit, Pointer[] errmsg);
+    Pointer extism_plugin_new(byte[] wasm, long wasmSize, Pointer[] functions, long nFunctions, boolean withWASI, Pointer[] errmsg);
+    Pointer extism_plugin_new_with_fuel_limit(byte[] wasm, long wasmSize, Pointer[] functions, long nFunctions, boolean withWASI, long fuelLimit, Pointer[] errmsg);
+
+    /**
+     * Compile a plugin once so that it can be instantiated multiple times.
+     *
+     * @param wasm           is a WASM module (wat or wasm) or a JSON encoded manifest
+     * @param wasmSize       the length of the `wasm` parameter
+     * @param functions      host functions
+     * @param nFunctions     the number of host functions
+     * @param withWASI       enables/disables WASI
+     * @param errmsg         get the error message if the return value is null
+     * @return pointer to the compiled plugin, or null in case of error
+     */
+    Pointer extism_compiled_plugin_new(byte[] wasm, long wasmSize, Pointer[] functions, long nFunctions, boolean withWASI, Pointer[] errmsg);
+
+    /**
+     * Free a compiled plugin. Plugins already created from it remain valid.
+     */
+    void extism_compiled_plugin_free(Pointer compiledPlugin);
+
+    /**
+     * Create a new plugin from a compiled plugin without recompiling the module.
+     *
+     * @param compiledPlugin the compiled plugin
+     * @param errmsg         get the error message if the return value is null
+     * @return pointer to the plugin, or null in case of error
+     */
+    Pointer extism_plugin_new_from_compiled(Pointer compiledPlugin, Pointer[] errmsg);
 
 
     /**
@@ -143,13 +178,44 @@ public interface LibExtism extends Library {
      * @param dataLength     is the data input data length
      * @return the result code of the plugin call. non-zero in case of error, {@literal 0} otherwise.
      */
-    int extism_plugin_call(Pointer pluginPointer, String function_name, byte[] data, int dataLength);
+    int extism_plugin_call(Pointer pluginPointer, String function_name, byte[] data, long dataLength);
+
+    /**
+     * Calls a function from the @{@link Plugin} with input data that already lives in native memory.
+     *
+     * @param pluginPointer
+     * @param function_name  is the function to call
+     * @param data           is a pointer to the input data
+     * @param dataLength     is the data input data length
+     * @return the result code of the plugin call. non-zero in case of error, {@literal 0} otherwise.
+     */
+    int extism_plugin_call(Pointer pluginPointer, String function_name, Pointer data, long dataLength);
+
+    /**
+     * Calls a function whose name is already encoded as a native string.
+     *
+     * @param pluginPointer
+     * @param function_name  is the NUL terminated UTF-8 name of the function to call
+     * @param data           is a pointer to the input data
+     * @param dataLength     is the data input data length
+     * @return the result code of the plugin call. non-zero in case of error, {@literal 0} otherwise.
+     */
+    int extism_plugin_call(Pointer pluginPointer, Pointer function_name, Pointer data, long dataLength);
+
+    /**
+     * Check if a function with the given name exists in the plugin.
+     *
+     * @param pluginPointer
+     * @param function_name  is the function to look for
+     * @return {@literal true} if the function exists
+     */
+    boolean extism_plugin_function_exists(Pointer pluginPointer, String function_name);
 
     /**
      * Returns 
      * @return the length of the output data in bytes.
      */
-    int extism_plugin_output_length(Pointer pluginPointer);
+    long extism_plugin_output_length(Pointer pluginPointer);
 
     /**
    
@@ -162,13 +228,21 @@ public interface LibExtism extends Library {
      */
     void extism_plugin_free(Pointer pluginPointer);
 
+    /**
+     * Reset the Extism runtime state of a plugin: vars and allocations in Extism memory are cleared.
+     * Linear memory of the guest is not shrunk.
+     *
+     * @return {@literal true} if the reset was successful, {@literal false} if the plugin is running
+     */
+    boolean extism_plugin_reset(Pointer pluginPointer);
+
     /**
      * Update plugin config values, this
      * @param json
      * @param jsonLength
      * @return {@literal true} if update was successful
      */
-    boolean extism_plugin_config(Pointer pluginPointer, byte[] json, int jsonLength);
+    boolean extism_plugin_config(Pointer pluginPointer, byte[] json, long jsonLength);
     Pointer extism_plugin_cancel_handle(Pointer pluginPointer);
     boolean extism_plugin_cancel(Pointer cancelHandle);
     void extism_function_set_namespace(Pointer p, String name);
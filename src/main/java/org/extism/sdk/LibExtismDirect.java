@@ -0,0 +1,67 @@
+package org.extism.sdk;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+
+/**
+ * Direct-mapped bindings for the Extism functions on the call path.
+ * <p>
+ * JNA binds these {@code native} methods straight to the library symbols, which avoids the proxy dispatch and
+ * reflective argument conversion of the interface mapping used by {@link LibExtism}.
+ * Only functions on the hot path are mapped here, everything else is in {@link LibExtism}.
+ */
+public final class LibExtismDirect {
+
+    static {
+        Native.register(LibExtismDirect.class, NativeLibrary.getInstance("extism"));
+    }
+
+    private LibExtismDirect() {
+    }
+
+    /**
+     * @see LibExtism#extism_plugin_call(Pointer, String, Pointer, long)
+     */
+    public static native int extism_plugin_call(Pointer pluginPointer, String function_name, Pointer data, long dataLength);
+
+    /**
+     * @see LibExtism#extism_plugin_call(Pointer, Pointer, Pointer, long)
+     */
+    public static native int extism_plugin_call(Pointer pluginPointer, Pointer function_name, Pointer data, long dataLength);
+
+    /**
+     * @see LibExtism#extism_plugin_output_length(Pointer)
+     */
+    public static native long extism_plugin_output_length(Pointer pluginPointer);
+
+    /**
+     * @see LibExtism#extism_plugin_output_data(Pointer)
+     */
+    public static native Pointer extism_plugin_output_data(Pointer pluginPointer);
+
+    /**
+     * @see LibExtism#extism_plugin_error(Pointer)
+     */
+    public static native String extism_plugin_error(Pointer pluginPointer);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory(Pointer)
+     */
+    public static native Pointer extism_current_plugin_memory(Pointer plugin);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_alloc(Pointer, long)
+     */
+    public static native long extism_current_plugin_memory_alloc(Pointer plugin, long n);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_length(Pointer, long)
+     */
+    public static native long extism_current_plugin_memory_length(Pointer plugin, long n);
+
+    /**
+     * @see LibExtism#extism_current_plugin_memory_free(Pointer, long)
+     */
+    public static native void extism_current_plugin_memory_free(Pointer plugin, long ptr);
+}
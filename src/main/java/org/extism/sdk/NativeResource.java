@@ -0,0 +1,140 @@
+package org.extism.sdk;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A native handle owned by a Java object, released either explicitly or by a {@link Cleaner} once the owner
+ * becomes unreachable. The latter is a leak, which is counted and reported to the {@link PluginListener PluginListeners}.
+ * <p>
+ * Releasing is idempotent and thread-safe. With leak detection enabled, the stack trace of each allocation is
+ * recorded so leaks can be traced back to their origin, at the cost of capturing a stack trace per handle.
+ */
+final class NativeResource implements Runnable {
+
+    /**
+     * The kinds of tracked handles
+     */
+    enum Kind {
+        PLUGIN, COMPILED_PLUGIN, HOST_FUNCTION
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create(r -> {
+        var thread = new Thread(r, "extism-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final LongAdder[] LIVE = {new LongAdder(), new LongAdder(), new LongAdder()};
+
+    private static final AtomicLong ESTIMATED_BYTES = new AtomicLong();
+
+    private static final LongAdder LEAKED = new LongAdder();
+
+    private static volatile boolean leakDetection = Boolean.getBoolean("extism.leakDetection");
+
+    private final Kind kind;
+
+    private final Runnable release;
+
+    /**
+     * Where the handle was allocated, if leak detection was enabled
+     */
+    private final Throwable allocationSite;
+
+    private final Cleaner.Cleanable cleanable;
+
+    private volatile boolean freed;
+
+    private long estimatedBytes;
+
+    /**
+     * @param owner          the object owning the handle, which must not be referenced by {@code release}
+     * @param kind           the kind of handle
+     * @param estimatedBytes the estimated native memory held by the handle
+     * @param release        releases the handle
+     */
+    NativeResource(Object owner, Kind kind, long estimatedBytes, Runnable release) {
+        this.kind = kind;
+        this.release = release;
+        this.estimatedBytes = estimatedBytes;
+        this.allocationSite = leakDetection ? new Throwable(kind + " allocated here") : null;
+
+        LIVE[kind.ordinal()].increment();
+        ESTIMATED_BYTES.addAndGet(estimatedBytes);
+        this.cleanable = CLEANER.register(owner, this);
+    }
+
+    /**
+     * Releases the handle unless it has already been released.
+     */
+    void free() {
+        this.freed = true;
+        this.cleanable.clean();
+    }
+
+    /**
+     * @return whether the handle has been released, or is being released
+     */
+    boolean isFreed() {
+        return this.freed;
+    }
+
+    /**
+     * Records a change in the native memory held by the handle.
+     *
+     * @param deltaBytes the number of bytes allocated, or released if negative
+     */
+    synchronized void adjust(long deltaBytes) {
+        if (!this.freed) {
+            ESTIMATED_BYTES.addAndGet(deltaBytes);
+            this.estimatedBytes += deltaBytes;
+        }
+    }
+
+    /**
+     * Invoked once, by {@link #free()} or by the cleaner.
+     */
+    @Override
+    public void run() {
+        boolean leaked = !this.freed;
+        this.freed = true;
+        try {
+            release.run();
+        } finally {
+            LIVE[kind.ordinal()].decrement();
+            synchronized (this) {
+                ESTIMATED_BYTES.addAndGet(-this.estimatedBytes);
+                this.estimatedBytes = 0;
+            }
+            if (leaked) {
+                LEAKED.increment();
+                reportLeak();
+            }
+        }
+    }
+
+    private void reportLeak() {
+        for (var listener : PluginListeners.get()) {
+            try {
+                listener.resourceLeaked(kind.name(), allocationSite);
+            } catch (RuntimeException e) {
+                // the cleaner thread has no caller to propagate to, keep notifying the other listeners
+            }
+        }
+    }
+
+    static void setLeakDetection(boolean enabled) {
+        leakDetection = enabled;
+    }
+
+    static NativeResourceStats stats() {
+        return new NativeResourceStats(
+                LIVE[Kind.PLUGIN.ordinal()].sum(),
+                LIVE[Kind.COMPILED_PLUGIN.ordinal()].sum(),
+                LIVE[Kind.HOST_FUNCTION.ordinal()].sum(),
+                ESTIMATED_BYTES.get(),
+                LEAKED.sum());
+    }
+}
@@ -0,0 +1,70 @@
+package org.extism.sdk;
+
+/**
+ * A snapshot of the native resources held by the SDK, see {@link Extism#nativeResourceStats()}.
+ * <p>
+ * The estimated memory covers the manifests passed to Extism and the SDK's own native buffers.
+ * Guest linear memory and compiled code are not included, Extism does not report their size.
+ */
+public final class NativeResourceStats {
+
+    private final long livePlugins;
+
+    private final long liveCompiledPlugins;
+
+    private final long liveHostFunctions;
+
+    private final long estimatedNativeBytes;
+
+    private final long leaked;
+
+    NativeResourceStats(long livePlugins, long liveCompiledPlugins, long liveHostFunctions, long estimatedNativeBytes, long leaked) {
+        this.livePlugins = livePlugins;
+        this.liveCompiledPlugins = liveCompiledPlugins;
+        this.liveHostFunctions = liveHostFunctions;
+        this.estimatedNativeBytes = estimatedNativeBytes;
+        this.leaked = leaked;
+    }
+
+    /**
+     * @return the number of plugins not freed yet
+     */
+    public long livePlugins() {
+        return livePlugins;
+    }
+
+    /**
+     * @return the number of compiled plugins not freed yet
+     */
+    public long liveCompiledPlugins() {
+        return liveCompiledPlugins;
+    }
+
+    /**
+     * @return the number of native host functions not freed yet
+     */
+    public long liveHostFunctions() {
+        return liveHostFunctions;
+    }
+
+    /**
+     * @return the estimated native memory held by live resources, in bytes
+     */
+    public long estimatedNativeBytes() {
+        return estimatedNativeBytes;
+    }
+
+    /**
+     * @return the number of resources released by the garbage collector instead of being freed
+     */
+    public long leaked() {
+        return leaked;
+    }
+
+    @Override
+    public String toString() {
+        return "NativeResourceStats{livePlugins=" + livePlugins + ", liveCompiledPlugins=" + liveCompiledPlugins
+                + ", liveHostFunctions=" + liveHostFunctions + ", estimatedNativeBytes=" + estimatedNativeBytes
+                + ", leaked=" + leaked + '}';
+    }
+}
@@ -1,17 +1,50 @@
 package org.extism.sdk;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import org.extism.sdk.manifest.Manifest;
-import org.extism.sdk.support.JsonSerde;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a Extism plugin.
  */
 public class Plugin implements AutoCloseable {
 
+    /**
+     * Size of the chunks used to copy output data to streams
+     */
+    private static final int OUTPUT_CHUNK_SIZE = 64 * 1024;
+
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocateDirect(0).asReadOnlyBuffer();
+
+    /**
+     * Initial size of the native buffer used to pass heap inputs to the plugin
+     */
+    private static final long MIN_STAGING_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * Larger inputs use a temporary native buffer, so that one large input does not pin native memory
+     */
+    private static final long MAX_STAGING_BUFFER_SIZE = 4 * 1024 * 1024;
+
     /**
      * Holds the Extism plugin pointer
      */
@@ -19,45 +52,92 @@ public class Plugin implements AutoCloseable {
 
     private final HostFunction[] functions;
 
+    /**
+     * The library the {@link #functions} were acquired from, if any, released when this plugin is freed
+     */
+    private final HostFunctionLibrary library;
+
+    /**
+     * The compiled plugin this instance was created from, if any.
+     * Keeps the shared host function callbacks reachable.
+     */
+    private final CompiledPlugin compiled;
+
+    /**
+     * Frees the native plugin when {@link #free() freed} or garbage collected
+     */
+    private final NativeResource resource;
+
+    /**
+     * The cancel handle of this plugin, created on first use. The native handle is owned by the plugin.
+     */
+    private volatile CancelHandle cancelHandle;
+
+    /**
+     * Reusable native buffer for heap inputs, allocated on first use
+     */
+    private Memory stagingBuffer;
+
+    /**
+     * Calls since creation or the last {@link #reset()}
+     */
+    private long callCount;
+
+    /**
+     * Calls since creation, not cleared by {@link #reset()}
+     */
+    private long lifetimeCallCount;
+
+    /**
+     * Largest input of a call since creation
+     */
+    private long peakInputBytes;
+
+    /**
+     * Largest output of a call since creation
+     */
+    private long peakOutputBytes;
+
     /**
      * @param manifestBytes The manifest for the plugin
      * @param functions     The Host functions for th eplugin
      * @param withWASI      Set to true to enable WASI
      */
     public Plugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions) {
+        this(manifestBytes, withWASI, functions, null, -1, null);
+    }
 
-        Objects.requireNonNull(manifestBytes, "manifestBytes");
-
-        Pointer[] ptrArr = new Pointer[functions == null ? 0 : functions.length];
+    
+    public Plugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions, long fuelLimit) {
+        this(manifestBytes, withWASI, functions, null, fuelLimit, null);
+    }
 
-        if (functions != null)
-            for (int i = 0; i < functions.length; i++) {
-               ptrArr[i] = functions[i].pointer;
-            }
+    public Plugin(Manifest manifest, boolean withWASI, HostFunction[] functions) {
+        this(serialize(manifest), withWASI, functions, null, -1, moduleHashes(manifest));
+    }
 
-        Pointer[] errormsg = new Pointer[1];
-        Pointer p = LibExtism.INSTANCE.extism_plugin_new(manifestBytes, manifestBytes.length,
-                ptrArr,
-                functions == null ? 0 : functions.length,
-                withWASI,
-                errormsg);
-        if (p == null) {
-            if (functions != null) {
-                for (int i = 0; i < functions.length; i++) {
-                    LibExtism.INSTANCE.extism_function_free(functions[i].pointer);
-                }
-            }
-            String msg = errormsg[0].getString(0);
-            LibExtism.INSTANCE.extism_plugin_new_error_free(errormsg[0]);
-            throw new ExtismException(msg);
-        }
+    
+    public Plugin(Manifest manifest, boolean withWASI, HostFunction[] functions, long fuelLimit) {
+        this(serialize(manifest), withWASI, functions, null, fuelLimit, moduleHashes(manifest));
+    }
 
-        this.functions = functions;
-        this.pluginPointer = p;
+    /**
+     * @param library      The host functions for the plugin, shared with other plugins
+     * @param moduleHashes The hashes of the modules for diagnostics, may be {@literal null}
+     * @see HostFunctionLibrary#newPlugin(Manifest, boolean)
+     */
+    Plugin(byte[] manifestBytes, boolean withWASI, HostFunctionLibrary library, String moduleHashes) {
+        this(Objects.requireNonNull(manifestBytes, "manifestBytes"), withWASI,
+                Objects.requireNonNull(library, "library").acquire(), library, -1, moduleHashes);
     }
 
-    
-    public Plugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions, long fuelLimit) {
+    /**
+     * @param library      The library the functions were acquired from, may be {@literal null}
+     * @param fuelLimit    The fuel limit, or a negative value for none
+     * @param moduleHashes The hashes of the modules for diagnostics, may be {@literal null}
+     */
+    private Plugin(byte[] manifestBytes, boolean withWASI, HostFunction[] functions, HostFunctionLibrary library,
+                   long fuelLimit, String moduleHashes) {
 
         Objects.requireNonNull(manifestBytes, "manifestBytes");
 
@@ -68,40 +148,111 @@ public class Plugin implements AutoCloseable {
                ptrArr[i] = functions[i].pointer;
             }
 
+        CompilationCache.pluginCreated();
+
+        var event = new ExtismEvents.Instantiate();
+        long start = System.nanoTime();
+        event.begin();
+
         Pointer[] errormsg = new Pointer[1];
-        Pointer p = LibExtism.INSTANCE.extism_plugin_new_with_fuel_limit(manifestBytes, manifestBytes.length,
-                ptrArr,
-                functions == null ? 0 : functions.length,
-                withWASI,
-                fuelLimit,
-                errormsg);
+        Pointer p = fuelLimit < 0
+                ? LibExtism.INSTANCE.extism_plugin_new(manifestBytes, manifestBytes.length,
+                        ptrArr,
+                        functions == null ? 0 : functions.length,
+                        withWASI,
+                        errormsg)
+                : LibExtism.INSTANCE.extism_plugin_new_with_fuel_limit(manifestBytes, manifestBytes.length,
+                        ptrArr,
+                        functions == null ? 0 : functions.length,
+                        withWASI,
+                        fuelLimit,
+                        errormsg);
         if (p == null) {
             if (functions != null) {
                 for (int i = 0; i < functions.length; i++) {
-                    LibExtism.INSTANCE.extism_function_free(functions[i].pointer);
+                    functions[i].free();
                 }
             }
+            if (library != null) {
+                library.release();
+            }
             String msg = errormsg[0].getString(0);
             LibExtism.INSTANCE.extism_plugin_new_error_free(errormsg[0]);
             throw new ExtismException(msg);
         }
 
         this.functions = functions;
+        this.library = library;
+        this.compiled = null;
         this.pluginPointer = p;
+        this.resource = new NativeResource(this, NativeResource.Kind.PLUGIN, manifestBytes.length, release(p, functions, library));
+        created(start, event, moduleHashes, manifestBytes.length, false);
     }
 
-    public Plugin(Manifest manifest, boolean withWASI, HostFunction[] functions) {
-        this(serialize(manifest), withWASI, functions);
+    /**
+     * @param pluginPointer The pointer to a plugin created from {@code compiled}
+     * @param compiled      The compiled plugin owning the host functions
+     */
+    Plugin(Pointer pluginPointer, CompiledPlugin compiled) {
+        this.functions = null;
+        this.library = null;
+        this.compiled = compiled;
+        this.pluginPointer = pluginPointer;
+        this.resource = new NativeResource(this, NativeResource.Kind.PLUGIN, 0, release(pluginPointer, null, null));
     }
 
-    
-    public Plugin(Manifest manifest, boolean withWASI, HostFunction[] functions, long fuelLimit) {
-        this(serialize(manifest), withWASI, functions, fuelLimit);
+    /**
+     * @return frees the native plugin and its host functions, without referencing the {@link Plugin} so it can be cleaned
+     */
+    private static Runnable release(Pointer pluginPointer, HostFunction[] functions, HostFunctionLibrary library) {
+        return () -> {
+            if (functions != null) {
+                for (var function : functions) {
+                    function.free();
+                }
+            }
+            LibExtism.INSTANCE.extism_plugin_free(pluginPointer);
+            if (library != null) {
+                library.release();
+            }
+        };
+    }
+
+    /**
+     * Reports the creation of a plugin started at {@code start}.
+     */
+    static void created(long start, ExtismEvents.Instantiate event, String moduleHashes, long manifestSize, boolean precompiled) {
+        var listeners = PluginListeners.get();
+        if (listeners.length > 0) {
+            PluginListeners.pluginCreated(listeners, System.nanoTime() - start);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.moduleHashes = moduleHashes;
+            event.manifestSize = manifestSize;
+            event.precompiled = precompiled;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the comma separated hashes of the modules of the manifest, for diagnostics
+     */
+    static String moduleHashes(Manifest manifest) {
+        Objects.requireNonNull(manifest, "manifest");
+        var hashes = new StringJoiner(",");
+        for (var source : manifest.getSources()) {
+            if (source != null && source.hash() != null) {
+                hashes.add(source.hash());
+            }
+        }
+        return hashes.toString();
     }
 
-    private static byte[] serialize(Manifest manifest) {
+    static byte[] serialize(Manifest manifest) {
         Objects.requireNonNull(manifest, "manifest");
-        return JsonSerde.toJson(manifest).getBytes(StandardCharsets.UTF_8);
+        return manifest.toJsonBytes();
     }
 
     /**
@@ -116,18 +267,310 @@ public class Plugin implements AutoCloseable {
 
         Objects.requireNonNull(functionName, "functionName");
 
-        int inputDataLength = inputData == null ? 0 : inputData.length;
-        int exitCode = LibExtism.INSTANCE.extism_plugin_call(this.pluginPointer, functionName, inputData, inputDataLength);
+        invoke(functionName, null, inputData);
+        return output();
+    }
+
+    /**
+     * Invoke a function with the given name and input.
+     * Direct buffers are passed to the plugin without copying, other buffers are copied
+     * through a reusable native staging buffer. The position of {@code inputData} is not modified.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The buffer holding the input data between its position and limit
+     * @return A byte array representing the raw output data
+     * @throws ExtismException if the call fails
+     */
+    public byte[] call(String functionName, ByteBuffer inputData) {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(inputData, "inputData");
+
+        invoke(functionName, null, inputData);
+        return output();
+    }
+
+    /**
+     * Invoke a function with the given name and input and return its output without copying it.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @return A read-only view of the output data, see {@link #outputBuffer()}
+     * @throws ExtismException if the call fails
+     */
+    public ByteBuffer callForBuffer(String functionName, byte[] inputData) {
+
+        Objects.requireNonNull(functionName, "functionName");
+
+        invoke(functionName, null, inputData);
+        return outputBuffer();
+    }
+
+    /**
+     * Invoke a function with the given name and input and return its output without copying it.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The buffer holding the input data between its position and limit
+     * @return A read-only view of the output data, see {@link #outputBuffer()}
+     * @throws ExtismException if the call fails
+     * @see #call(String, ByteBuffer)
+     */
+    public ByteBuffer callForBuffer(String functionName, ByteBuffer inputData) {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(inputData, "inputData");
+
+        invoke(functionName, null, inputData);
+        return outputBuffer();
+    }
+
+    /**
+     * Invoke a function with the given name and input and write its output to the given channel.
+     * The output is written directly from native memory.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @param out          The channel receiving the output data
+     * @return the number of bytes written
+     * @throws ExtismException if the call fails
+     * @throws IOException     if writing to the channel fails
+     */
+    public long call(String functionName, byte[] inputData, WritableByteChannel out) throws IOException {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(out, "out");
+
+        invoke(functionName, null, inputData);
+
+        var output = outputBuffer();
+        long written = 0;
+        while (output.hasRemaining()) {
+            written += out.write(output);
+        }
+        return written;
+    }
+
+    /**
+     * Invoke a function with the given name and input and write its output to the given stream.
+     * The output is copied from native memory in chunks, so it is never fully materialized on the heap.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @param out          The stream receiving the output data
+     * @return the number of bytes written
+     * @throws ExtismException if the call fails
+     * @throws IOException     if writing to the stream fails
+     */
+    public long call(String functionName, byte[] inputData, OutputStream out) throws IOException {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(out, "out");
+
+        invoke(functionName, null, inputData);
+
+        long length = recordOutputLength(ExtismBackend.INSTANCE.pluginOutputLength(pointer()));
+        if (length == 0) {
+            return 0;
+        }
+        Pointer output = ExtismBackend.INSTANCE.pluginOutputData(pointer());
+
+        byte[] chunk = new byte[(int) Math.min(length, OUTPUT_CHUNK_SIZE)];
+        for (long offset = 0; offset < length; offset += chunk.length) {
+            int n = (int) Math.min(chunk.length, length - offset);
+            output.read(offset, chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+        return length;
+    }
+
+    /**
+     * Returns a read-only view of the output of the last call, backed by the plugin's native memory.
+     * The view is only valid until the next call on this plugin or until it is freed,
+     * copy the data if it must outlive that.
+     *
+     * @return the output data of the last call
+     */
+    public ByteBuffer outputBuffer() {
+        int length = outputLength();
+        if (length == 0) {
+            return EMPTY_BUFFER.duplicate();
+        }
+        Pointer output = ExtismBackend.INSTANCE.pluginOutputData(pointer());
+        return output.getByteBuffer(0, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the output of the last call to the heap.
+     */
+    byte[] output() {
+        int length = outputLength();
+        if (length == 0) {
+            return new byte[0];
+        }
+        Pointer output = ExtismBackend.INSTANCE.pluginOutputData(pointer());
+        return output.getByteArray(0, length);
+    }
+
+    private long recordOutputLength(long length) {
+        if (length > this.peakOutputBytes) {
+            this.peakOutputBytes = length;
+        }
+        return length;
+    }
+
+    /**
+     * @return the length of the output of the last call, if it can be held by a single array or buffer
+     */
+    private int outputLength() {
+        long length = recordOutputLength(ExtismBackend.INSTANCE.pluginOutputLength(pointer()));
+        if (length > Integer.MAX_VALUE) {
+            throw new ExtismException("Output of " + length + " bytes is too large for a single buffer, stream it instead");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Calls the function with input data from the heap.
+     *
+     * @param functionName The name of the function
+     * @param encodedName  The name of the function as a native string, or {@literal null} to encode {@code functionName}
+     * @param inputData    The input data, may be {@literal null}
+     */
+    void invoke(String functionName, Pointer encodedName, byte[] inputData) {
+        if (inputData == null || inputData.length == 0) {
+            invoke(functionName, encodedName, Pointer.NULL, 0);
+            return;
+        }
+
+        Memory staging = stagingBuffer(inputData.length);
+        try {
+            staging.write(0, inputData, 0, inputData.length);
+            invoke(functionName, encodedName, staging, inputData.length);
+        } finally {
+            releaseStagingBuffer(staging);
+        }
+    }
+
+    /**
+     * Calls the function with input data from a buffer.
+     *
+     * @param functionName The name of the function
+     * @param encodedName  The name of the function as a native string, or {@literal null} to encode {@code functionName}
+     * @param inputData    The input data between position and limit
+     */
+    void invoke(String functionName, Pointer encodedName, ByteBuffer inputData) {
+        int length = inputData.remaining();
+        if (length == 0) {
+            invoke(functionName, encodedName, Pointer.NULL, 0);
+            return;
+        }
+
+        if (inputData.isDirect()) {
+            Pointer data = Native.getDirectBufferPointer(inputData).share(inputData.position());
+            invoke(functionName, encodedName, data, length);
+            return;
+        }
+
+        Memory staging = stagingBuffer(length);
+        try {
+            staging.getByteBuffer(0, length).put(inputData.duplicate());
+            invoke(functionName, encodedName, staging, length);
+        } finally {
+            releaseStagingBuffer(staging);
+        }
+    }
+
+    /**
+     * Calls the function and fails if it returned a non-zero exit code.
+     */
+    private void invoke(String functionName, Pointer encodedName, Pointer data, long dataLength) {
+        var listeners = PluginListeners.get();
+        if (listeners.length == 0 && !ExtismEvents.Call.enabled()) {
+            invokeNative(functionName, encodedName, data, dataLength);
+            return;
+        }
+
+        var event = new ExtismEvents.Call();
+
+        long start = System.nanoTime();
+        long cpuStart = listeners.length == 0 ? -1 : PluginListeners.threadCpuTime();
+        event.begin();
+        try {
+            invokeNative(functionName, encodedName, data, dataLength);
+        } catch (ExtismException e) {
+            long duration = System.nanoTime() - start;
+            PluginListeners.callFailed(listeners, functionName, dataLength, e.getMessage(),
+                    duration, PluginListeners.cpuSince(cpuStart));
+            event.end();
+            if (event.shouldCommit()) {
+                event.functionName = functionName;
+                event.inputSize = dataLength;
+                event.error = e.getMessage();
+                event.commit();
+            }
+            throw e;
+        }
+        long duration = System.nanoTime() - start;
+        long cpu = PluginListeners.cpuSince(cpuStart);
+        event.end();
+
+        boolean commit = event.shouldCommit();
+        if (listeners.length == 0 && !commit) {
+            return;
+        }
+        long outputLength = recordOutputLength(ExtismBackend.INSTANCE.pluginOutputLength(pointer()));
+        PluginListeners.callSucceeded(listeners, functionName, dataLength, outputLength, duration, cpu);
+        if (commit) {
+            event.functionName = functionName;
+            event.inputSize = dataLength;
+            event.outputSize = outputLength;
+            event.success = true;
+            event.commit();
+        }
+    }
+
+    private void invokeNative(String functionName, Pointer encodedName, Pointer data, long dataLength) {
+        var pluginPointer = pointer();
+        this.callCount++;
+        this.lifetimeCallCount++;
+        if (dataLength > this.peakInputBytes) {
+            this.peakInputBytes = dataLength;
+        }
+        int exitCode = encodedName == null
+                ? ExtismBackend.INSTANCE.pluginCall(pluginPointer, functionName, data, dataLength)
+                : ExtismBackend.INSTANCE.pluginCall(pluginPointer, encodedName, data, dataLength);
         if (exitCode != 0) {
             String error = this.error();
             throw new ExtismException(error);
         }
+    }
 
-        int length = LibExtism.INSTANCE.extism_plugin_output_length(this.pluginPointer);
-        Pointer output = LibExtism.INSTANCE.extism_plugin_output_data(this.pluginPointer);
-        return output.getByteArray(0, length);
+    /**
+     * Returns a native buffer of at least {@code size} bytes for the input of a call.
+     * Inputs up to {@link #MAX_STAGING_BUFFER_SIZE} reuse the plugin's staging buffer,
+     * larger ones get a temporary buffer.
+     */
+    private Memory stagingBuffer(long size) {
+        if (size > MAX_STAGING_BUFFER_SIZE) {
+            return new Memory(size);
+        }
+        if (this.stagingBuffer == null || this.stagingBuffer.size() < size) {
+            if (this.stagingBuffer != null) {
+                this.resource.adjust(-this.stagingBuffer.size());
+                this.stagingBuffer.close();
+            }
+            long capacity = Math.max(MIN_STAGING_BUFFER_SIZE, Long.highestOneBit(size - 1) << 1);
+            this.stagingBuffer = new Memory(Math.min(capacity, MAX_STAGING_BUFFER_SIZE));
+            this.resource.adjust(this.stagingBuffer.size());
+        }
+        return this.stagingBuffer;
     }
 
+    private void releaseStagingBuffer(Memory buffer) {
+        if (buffer != this.stagingBuffer) {
+            buffer.close();
+        }
+    }
 
     /**
      * Invoke a function with the given name and input.
@@ -137,21 +580,259 @@ public class Plugin implements AutoCloseable {
      * @return A string representing the output data
      */
     public String call(String functionName, String input) {
+        return call(functionName, input, Codec.utf8());
+    }
+
+    /**
+     * Invoke a function with the given name and input, converted by a codec.
+     * The input is encoded into the plugin's native staging buffer, which grows and is retried
+     * when the codec overflows it, and the output is decoded straight from the plugin's memory.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param input        The input, or {@literal null} for none
+     * @param codec        Converts the input and output
+     * @return the decoded output
+     * @throws ExtismException if the call fails
+     */
+    public <I, O> O call(String functionName, I input, Codec<I, O> codec) {
 
         Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(codec, "codec");
+
+        if (input == null) {
+            invoke(functionName, null, (byte[]) null);
+            return codec.decode(outputBuffer());
+        }
 
-        var inputBytes = input == null ? null : input.getBytes(StandardCharsets.UTF_8);
-        var outputBytes = call(functionName, inputBytes);
-        return new String(outputBytes, StandardCharsets.UTF_8);
+        Memory staging = stagingBuffer(Math.max(codec.sizeHint(input), MIN_STAGING_BUFFER_SIZE));
+        try {
+            while (true) {
+                var target = staging.getByteBuffer(0, Math.min(staging.size(), Integer.MAX_VALUE));
+                try {
+                    codec.encode(input, target);
+                } catch (BufferOverflowException e) {
+                    if (staging.size() >= Integer.MAX_VALUE) {
+                        throw new ExtismException("Input of " + functionName + " is too large for a single buffer", e);
+                    }
+                    long size = staging.size() * 2;
+                    releaseStagingBuffer(staging);
+                    staging = stagingBuffer(size);
+                    continue;
+                }
+                invoke(functionName, null, staging, target.position());
+                break;
+            }
+        } finally {
+            releaseStagingBuffer(staging);
+        }
+        return codec.decode(outputBuffer());
     }
     
+    /**
+     * Invoke a function with the given name and input, cancelling it if it does not complete within {@code timeout}
+     * or if the calling thread is interrupted.
+     * <p>
+     * Deadlines are tracked by a single shared timer, so this adds no thread or scheduled task per call.
+     * To bound every call of a plugin, prefer setting the timeout on the {@link Manifest} instead.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @param timeout      The maximum duration of the call, or {@literal null} to only cancel on interrupt
+     * @return A byte array representing the raw output data
+     * @throws ExtismException          if the call fails, times out or the thread is interrupted
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public byte[] call(String functionName, byte[] inputData, Duration timeout) {
+
+        Objects.requireNonNull(functionName, "functionName");
+        if (timeout != null && timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ExtismException("Interrupted before calling " + functionName);
+        }
+
+        var deadline = DeadlineTimer.INSTANCE.schedule(cancelHandle(), timeout == null ? -1 : toNanosSaturated(timeout));
+        ExtismException failure = null;
+        try {
+            invoke(functionName, null, inputData);
+        } catch (ExtismException e) {
+            failure = e;
+        }
+
+        switch (deadline.complete()) {
+            case DeadlineTimer.Deadline.EXPIRED:
+                throw new ExtismException("Call to " + functionName + " timed out after " + timeout, failure);
+            case DeadlineTimer.Deadline.INTERRUPTED:
+                throw new ExtismException("Call to " + functionName + " was interrupted", failure);
+            default:
+                if (failure != null) {
+                    throw failure;
+                }
+                return output();
+        }
+    }
+
+    private static long toNanosSaturated(Duration timeout) {
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Invoke a function which streams its input and output through the {@link ExtismStreams} host functions.
+     * Only one chunk is held in memory at a time, so payloads may be larger than the heap.
+     * The plugin must have been created with {@link ExtismStreams#hostFunctions()}.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param in           The blocking channel the guest reads its input from
+     * @param out          The blocking channel the guest writes its output to
+     * @return the number of bytes written to {@code out}
+     * @throws ExtismException          if the call fails
+     * @throws IOException              if reading from {@code in} or writing to {@code out} fails, the call is cancelled then
+     * @throws IllegalArgumentException if a channel is in non-blocking mode
+     */
+    public long callStreaming(String functionName, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(in, "in");
+        Objects.requireNonNull(out, "out");
+
+        return ExtismStreams.withStreams(this, in, out, () -> invoke(functionName, null, (byte[]) null));
+    }
+
+    /**
+     * Invoke a function once for each input.
+     * The function is resolved once, heap inputs share the plugin's native staging buffer and the outputs
+     * are collected into a single buffer. A failing item is recorded in the result and does not stop the batch.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputs       The raw bytes of each input
+     * @return the output or error of each input
+     * @throws ExtismException if the plugin does not export the function
+     */
+    public BatchResult callBatch(String functionName, List<byte[]> inputs) {
+
+        Objects.requireNonNull(inputs, "inputs");
+
+        var function = function(functionName);
+        var result = new BatchResult.Builder(inputs.size());
+        for (byte[] input : inputs) {
+            try {
+                invoke(function.name(), function.encodedName(), input);
+            } catch (ExtismException e) {
+                result.addFailure(e.getMessage());
+                continue;
+            }
+            collectOutput(result);
+        }
+        return result.build();
+    }
+
+    /**
+     * Invoke a function once for each input.
+     * Direct buffers are passed without copying, see {@link #callBatch(String, List)}.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputs       The buffers holding each input between their position and limit
+     * @return the output or error of each input
+     * @throws ExtismException if the plugin does not export the function
+     */
+    public BatchResult callBatch(String functionName, ByteBuffer[] inputs) {
+
+        Objects.requireNonNull(inputs, "inputs");
+
+        var function = function(functionName);
+        var result = new BatchResult.Builder(inputs.length);
+        for (ByteBuffer input : inputs) {
+            try {
+                invoke(function.name(), function.encodedName(), input);
+            } catch (ExtismException e) {
+                result.addFailure(e.getMessage());
+                continue;
+            }
+            collectOutput(result);
+        }
+        return result.build();
+    }
+
+    private void collectOutput(BatchResult.Builder result) {
+        long length = recordOutputLength(ExtismBackend.INSTANCE.pluginOutputLength(pointer()));
+        Pointer output = length == 0 ? null : ExtismBackend.INSTANCE.pluginOutputData(pointer());
+        result.addOutput(output, length);
+    }
+
+    /**
+     * Invoke a function asynchronously on the given executor.
+     * Cancelling the returned future with {@link CompletableFuture#cancel(boolean)} cancels the running call
+     * through the plugin's {@link CancelHandle}, or skips it if it has not started yet.
+     * <p>
+     * The plugin must still not be called concurrently, so callers must not start another call before the future completes.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @param executor     The executor running the native call
+     * @return A future completed with the raw output data, or exceptionally with an {@link ExtismException}
+     */
+    public CompletableFuture<byte[]> callAsync(String functionName, byte[] inputData, Executor executor) {
+
+        Objects.requireNonNull(functionName, "functionName");
+        Objects.requireNonNull(executor, "executor");
+
+        var future = new CancellableCall<byte[]>(cancelHandle());
+        try {
+            executor.execute(() -> {
+                if (!future.start()) {
+                    return;
+                }
+                try {
+                    future.complete(call(functionName, inputData));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Invoke a function asynchronously on the {@link #defaultExecutor()}.
+     * <p>
+     * The default executor runs the native calls on a bounded pool of platform threads, so a virtual thread
+     * waiting for the result is unmounted instead of blocking its carrier thread while the guest runs.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @return A future completed with the raw output data
+     * @see #callAsync(String, byte[], Executor)
+     */
+    public CompletableFuture<byte[]> callAsync(String functionName, byte[] inputData) {
+        return callAsync(functionName, inputData, defaultExecutor());
+    }
+
+    /**
+     * Returns the shared executor for {@link #callAsync(String, byte[])}.
+     * It uses daemon platform threads, as many as available processors unless configured with
+     * the {@code extism.executor.threads} system property.
+     *
+     * @return the default executor for asynchronous calls
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
     /**
      * Get the error associated with a plugin
      *
      * @return the error message
      */
     protected String error() {
-        String error = LibExtism.INSTANCE.extism_plugin_error(this.pluginPointer);
+        String error = ExtismBackend.INSTANCE.pluginError(pointer());
         if (error == null){
             return new String("Unknown error encountered when running Extism plugin function");
         }
@@ -159,15 +840,88 @@ public class Plugin implements AutoCloseable {
     }
 
     /**
-     * Frees a plugin from memory
+     * Returns a handle to the exported function with the given name.
+     * The handle keeps the encoded function name in native memory, so calls through it
+     * do not convert the name on every invocation.
+     *
+     * @param functionName The name of the exported function
+     * @return a handle to call the function on this plugin
+     * @throws ExtismException if the plugin does not export the function
+     */
+    public PluginFunction function(String functionName) {
+        Objects.requireNonNull(functionName, "functionName");
+        if (!functionExists(functionName)) {
+            throw new ExtismException("Function not found: " + functionName);
+        }
+        return new PluginFunction(this, functionName);
+    }
+
+    /**
+     * Check if the plugin exports a function with the given name.
+     *
+     * @param functionName The name of the function
+     * @return {@literal true} if the function exists
+     */
+    public boolean functionExists(String functionName) {
+        Objects.requireNonNull(functionName, "functionName");
+        return ExtismBackend.INSTANCE.pluginFunctionExists(pointer(), functionName);
+    }
+
+    /**
+     * Reset the Extism runtime state of the plugin: vars and the data allocated in Extism memory, such as inputs
+     * and outputs of previous calls, are cleared. This is much cheaper than creating a new instance,
+     * but the linear memory of the guest is not shrunk and its globals are kept.
+     *
+     * @return {@literal true} if the reset was successful, {@literal false} if the plugin is running
+     */
+    public boolean reset() {
+        boolean reset = ExtismBackend.INSTANCE.pluginReset(pointer());
+        if (reset) {
+            this.callCount = 0;
+        }
+        return reset;
+    }
+
+    /**
+     * @return the number of calls since the plugin was created or last {@link #reset()}
+     */
+    public long callCount() {
+        return callCount;
+    }
+
+    /**
+     * @return the number of calls since the plugin was created, including those before a {@link #reset()}
+     */
+    public long lifetimeCallCount() {
+        return lifetimeCallCount;
+    }
+
+    /**
+     * Returns the largest input plus the largest output handled by the plugin since it was created.
+     * <p>
+     * libextism does not report the size of guest memory, which only grows. The data passed in and out is what
+     * typically makes it grow, so this is the measure for memory-based recycling, see {@link RecyclePolicy}.
+     * Memory allocated by the guest on its own is not included.
+     *
+     * @return the peak number of payload bytes
+     */
+    public long peakPayloadBytes() {
+        return peakInputBytes + peakOutputBytes;
+    }
+
+    /**
+     * Frees a plugin from memory.
+     * Calling it more than once, or from several threads, has no further effect. It must not run concurrently with
+     * a call or another method of this plugin, nor with a cancellation through its {@link #cancelHandle()}:
+     * afterwards, they fail with an {@link ExtismException}, but a call already running would use the freed plugin.
      */
     public void free() {
-        if (this.functions != null){
-            for (int i = 0; i < this.functions.length; i++) {
-                this.functions[i].free();
-            }
+        this.resource.free();
+        var staging = this.stagingBuffer;
+        if (staging != null) {
+            this.stagingBuffer = null;
+            staging.close();
         }
-        LibExtism.INSTANCE.extism_plugin_free(this.pluginPointer);
     }
 
     /**
@@ -189,7 +943,22 @@ public class Plugin implements AutoCloseable {
      */
     public boolean updateConfig(byte[] jsonBytes) {
         Objects.requireNonNull(jsonBytes, "jsonBytes");
-        return LibExtism.INSTANCE.extism_plugin_config(this.pluginPointer, jsonBytes, jsonBytes.length);
+        return ExtismBackend.INSTANCE.pluginConfig(pointer(), jsonBytes);
+    }
+
+    /**
+     * @return the native plugin, for a native entry point
+     * @throws ExtismException if the plugin has been freed
+     */
+    private Pointer pointer() {
+        ensureNotFreed();
+        return this.pluginPointer;
+    }
+
+    private void ensureNotFreed() {
+        if (this.resource.isFreed()) {
+            throw new ExtismException("Plugin has been freed");
+        }
     }
 
     /**
@@ -201,10 +970,63 @@ public class Plugin implements AutoCloseable {
     }
 
     /**
-     * Return a new `CancelHandle`, which can be used to cancel a running Plugin
+     * Return the `CancelHandle`, which can be used to cancel a running Plugin
      */
     public CancelHandle cancelHandle() {
-        Pointer handle = LibExtism.INSTANCE.extism_plugin_cancel_handle(this.pluginPointer);
-        return new CancelHandle(handle);
+        ensureNotFreed();
+        var handle = this.cancelHandle;
+        if (handle == null) {
+            handle = new CancelHandle(ExtismBackend.INSTANCE.pluginCancelHandle(pointer()));
+            this.cancelHandle = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * A future which cancels the plugin call it represents.
+     */
+    private static final class CancellableCall<T> extends CompletableFuture<T> {
+
+        private final CancelHandle cancelHandle;
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private CancellableCall(CancelHandle cancelHandle) {
+            this.cancelHandle = cancelHandle;
+        }
+
+        /**
+         * @return {@literal false} if the call was cancelled before it started
+         */
+        private boolean start() {
+            return started.compareAndSet(false, true) && !isDone();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && !started.compareAndSet(false, true)) {
+                cancelHandle.cancel();
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Lazily creates the executor for {@link #callAsync(String, byte[])}.
+     */
+    private static final class DefaultExecutor {
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            int threads = Integer.getInteger("extism.executor.threads", Runtime.getRuntime().availableProcessors());
+            var counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                var thread = new Thread(r, "extism-call-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 }
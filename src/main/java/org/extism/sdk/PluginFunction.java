@@ -0,0 +1,121 @@
+package org.extism.sdk;
+
+import com.sun.jna.Memory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A handle to an exported function of a {@link Plugin}, obtained from {@link Plugin#function(String)}.
+ * <p>
+ * The function name is encoded to a native string once, so repeated calls do not marshal the name.
+ * Like its plugin, a handle must not be used concurrently and becomes invalid once the plugin is freed.
+ */
+public class PluginFunction {
+
+    private final Plugin plugin;
+
+    private final String name;
+
+    /**
+     * The NUL terminated UTF-8 encoded name
+     */
+    private final Memory encodedName;
+
+    PluginFunction(Plugin plugin, String name) {
+        this.plugin = plugin;
+        this.name = name;
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        this.encodedName = new Memory(nameBytes.length + 1L);
+        this.encodedName.write(0, nameBytes, 0, nameBytes.length);
+        this.encodedName.setByte(nameBytes.length, (byte) 0);
+    }
+
+    /**
+     * @return the name of the function
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the name as a native string
+     */
+    Memory encodedName() {
+        return encodedName;
+    }
+
+    /**
+     * @return the plugin exporting the function
+     */
+    public Plugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * Invoke the function with the given input.
+     *
+     * @param inputData The raw bytes representing any input data
+     * @return A byte array representing the raw output data
+     * @throws ExtismException if the call fails
+     * @see Plugin#call(String, byte[])
+     */
+    public byte[] call(byte[] inputData) {
+        plugin.invoke(name, encodedName, inputData);
+        return plugin.output();
+    }
+
+    /**
+     * Invoke the function with the given input.
+     *
+     * @param inputData The buffer holding the input data between its position and limit
+     * @return A byte array representing the raw output data
+     * @throws ExtismException if the call fails
+     * @see Plugin#call(String, ByteBuffer)
+     */
+    public byte[] call(ByteBuffer inputData) {
+        Objects.requireNonNull(inputData, "inputData");
+        plugin.invoke(name, encodedName, inputData);
+        return plugin.output();
+    }
+
+    /**
+     * Invoke the function with the given input.
+     *
+     * @param input The string representing the input data
+     * @return A string representing the output data
+     * @throws ExtismException if the call fails
+     * @see Plugin#call(String, String)
+     */
+    public String call(String input) {
+        var inputBytes = input == null ? null : input.getBytes(StandardCharsets.UTF_8);
+        return new String(call(inputBytes), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Invoke the function and return its output without copying it.
+     *
+     * @param inputData The raw bytes representing any input data
+     * @return A read-only view of the output data, see {@link Plugin#outputBuffer()}
+     * @throws ExtismException if the call fails
+     */
+    public ByteBuffer callForBuffer(byte[] inputData) {
+        plugin.invoke(name, encodedName, inputData);
+        return plugin.outputBuffer();
+    }
+
+    /**
+     * Invoke the function and return its output without copying it.
+     *
+     * @param inputData The buffer holding the input data between its position and limit
+     * @return A read-only view of the output data, see {@link Plugin#outputBuffer()}
+     * @throws ExtismException if the call fails
+     */
+    public ByteBuffer callForBuffer(ByteBuffer inputData) {
+        Objects.requireNonNull(inputData, "inputData");
+        plugin.invoke(name, encodedName, inputData);
+        return plugin.outputBuffer();
+    }
+}
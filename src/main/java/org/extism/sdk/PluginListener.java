@@ -0,0 +1,85 @@
+package org.extism.sdk;
+
+/**
+ * Receives metrics from plugins and host functions.
+ * <p>
+ * Listeners are registered globally with {@link Extism#addPluginListener(PluginListener)}. While none is registered,
+ * nothing is measured. All methods have empty defaults, so an adapter to a metrics registry only overrides
+ * what it records. They are invoked synchronously on the calling thread, must be thread-safe and should not block.
+ * An exception thrown by a listener propagates to the caller of the plugin.
+ * <p>
+ * Durations are in nanoseconds. CPU times are the CPU time of the calling thread, or {@literal -1} if the JVM
+ * does not support measuring it.
+ */
+public interface PluginListener {
+
+    /**
+     * A module has been compiled by a {@link CompiledPlugin}.
+     *
+     * @param durationNanos the time spent compiling
+     */
+    default void pluginCompiled(long durationNanos) {
+    }
+
+    /**
+     * A {@link Plugin} has been created, either from a manifest or from a {@link CompiledPlugin}.
+     *
+     * @param durationNanos the time spent creating the plugin, including compilation if it was not precompiled
+     */
+    default void pluginCreated(long durationNanos) {
+    }
+
+    /**
+     * A call into a plugin has returned successfully.
+     *
+     * @param functionName  the name of the exported function
+     * @param inputBytes    the size of the input
+     * @param outputBytes   the size of the output
+     * @param durationNanos the time spent in the call, including host functions
+     * @param cpuNanos      the CPU time spent in the call
+     */
+    default void callSucceeded(String functionName, long inputBytes, long outputBytes, long durationNanos, long cpuNanos) {
+    }
+
+    /**
+     * A call into a plugin has failed.
+     *
+     * @param functionName  the name of the exported function
+     * @param inputBytes    the size of the input
+     * @param error         the error reported by the plugin
+     * @param durationNanos the time spent in the call, including host functions
+     * @param cpuNanos      the CPU time spent in the call
+     */
+    default void callFailed(String functionName, long inputBytes, String error, long durationNanos, long cpuNanos) {
+    }
+
+    /**
+     * A host function has returned to the plugin.
+     *
+     * @param functionName  the name of the host function
+     * @param durationNanos the time spent in the host function
+     */
+    default void hostFunctionCalled(String functionName, long durationNanos) {
+    }
+
+    /**
+     * A host function has thrown an exception.
+     *
+     * @param functionName  the name of the host function
+     * @param error         the exception thrown
+     * @param durationNanos the time spent in the host function
+     */
+    default void hostFunctionFailed(String functionName, Throwable error, long durationNanos) {
+    }
+
+    /**
+     * A {@link Plugin}, {@link CompiledPlugin} or {@link HostFunction} has been garbage collected without being freed,
+     * its native memory has been released by the cleaner. Invoked on the cleaner thread, exceptions are ignored.
+     *
+     * @param resource       the kind of resource, {@code PLUGIN}, {@code COMPILED_PLUGIN} or {@code HOST_FUNCTION}
+     * @param allocationSite where the resource was created, or {@literal null} unless
+     *                       {@link Extism#setLeakDetection(boolean) leak detection} was enabled
+     */
+    default void resourceLeaked(String resource, Throwable allocationSite) {
+    }
+}
@@ -0,0 +1,108 @@
+package org.extism.sdk;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The registered {@link PluginListener PluginListeners}.
+ * <p>
+ * The listeners are kept in a copy-on-write array, so the instrumented paths only read a volatile field
+ * and skip all measurements while it is empty.
+ */
+final class PluginListeners {
+
+    static final PluginListener[] NONE = new PluginListener[0];
+
+    private static volatile PluginListener[] listeners = NONE;
+
+    private PluginListeners() {
+    }
+
+    /**
+     * @return the registered listeners, which must not be modified
+     */
+    static PluginListener[] get() {
+        return listeners;
+    }
+
+    static synchronized void add(PluginListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        var current = listeners;
+        var updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    static synchronized boolean remove(PluginListener listener) {
+        var current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                var updated = new PluginListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the CPU time of the current thread in nanoseconds, or {@literal -1} if not supported
+     */
+    static long threadCpuTime() {
+        return ThreadCpu.SUPPORTED ? ThreadCpu.BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    static long cpuSince(long start) {
+        return start < 0 ? -1 : threadCpuTime() - start;
+    }
+
+    static void pluginCompiled(PluginListener[] listeners, long durationNanos) {
+        for (var listener : listeners) {
+            listener.pluginCompiled(durationNanos);
+        }
+    }
+
+    static void pluginCreated(PluginListener[] listeners, long durationNanos) {
+        for (var listener : listeners) {
+            listener.pluginCreated(durationNanos);
+        }
+    }
+
+    static void callSucceeded(PluginListener[] listeners, String functionName, long inputBytes, long outputBytes, long durationNanos, long cpuNanos) {
+        for (var listener : listeners) {
+            listener.callSucceeded(functionName, inputBytes, outputBytes, durationNanos, cpuNanos);
+        }
+    }
+
+    static void callFailed(PluginListener[] listeners, String functionName, long inputBytes, String error, long durationNanos, long cpuNanos) {
+        for (var listener : listeners) {
+            listener.callFailed(functionName, inputBytes, error, durationNanos, cpuNanos);
+        }
+    }
+
+    static void hostFunctionCalled(PluginListener[] listeners, String functionName, long durationNanos) {
+        for (var listener : listeners) {
+            listener.hostFunctionCalled(functionName, durationNanos);
+        }
+    }
+
+    static void hostFunctionFailed(PluginListener[] listeners, String functionName, Throwable error, long durationNanos) {
+        for (var listener : listeners) {
+            listener.hostFunctionFailed(functionName, error, durationNanos);
+        }
+    }
+
+    /**
+     * Loaded on the first measurement, so the management classes are not initialized without listeners.
+     */
+    private static final class ThreadCpu {
+
+        private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+
+        private static final boolean SUPPORTED = BEAN.isCurrentThreadCpuTimeSupported() && BEAN.isThreadCpuTimeEnabled();
+    }
+}
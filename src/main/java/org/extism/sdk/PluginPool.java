@@ -0,0 +1,425 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe pool of {@link Plugin} instances created from the same manifest.
+ * <p>
+ * A {@link Plugin} must not be called concurrently, so the pool hands out one instance per caller.
+ * Instances are borrowed with {@link #borrow()} or {@link #borrow(Duration)} and must be given back
+ * with {@link #release(Plugin)}. {@link #call(String, byte[])} does both around a single call.
+ * <p>
+ * The pool eagerly creates {@code minSize} instances and grows on demand up to {@code maxSize}.
+ * Optionally, idle instances above {@code minSize} are evicted after {@link #withIdleTimeout(Duration)}
+ * and instances are replaced after {@link #withMaxCallsPerPlugin(long)} uses or reset and replaced
+ * according to a {@link #withRecyclePolicy(RecyclePolicy) RecyclePolicy}.
+ */
+public class PluginPool implements AutoCloseable {
+
+    private final Supplier<Plugin> factory;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    /**
+     * Idle instances, the most recently used first
+     */
+    private final LinkedBlockingDeque<Slot> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * Borrowed instances
+     */
+    private final Map<Plugin, Slot> borrowed = new ConcurrentHashMap<>();
+
+    /**
+     * Number of live instances, idle or borrowed
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * One permit per instance which may be borrowed, held from {@link #borrow()} until {@link #release(Plugin)}.
+     * Waiting on the permits rather than on {@link #idle} also wakes borrowers when a released instance is destroyed.
+     */
+    private final Semaphore permits;
+
+    private volatile long maxCallsPerPlugin;
+
+    private volatile long idleTimeoutNanos;
+
+    private volatile RecyclePolicy recyclePolicy = RecyclePolicy.none();
+
+    private ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    /**
+     * @param manifest  The manifest for the plugins
+     * @param withWASI  Set to true to enable WASI
+     * @param functions Creates the host functions for each new plugin, may be {@literal null}
+     * @param minSize   The number of instances created eagerly and kept alive
+     * @param maxSize   The maximum number of instances
+     */
+    public PluginPool(Manifest manifest, boolean withWASI, Supplier<HostFunction[]> functions, int minSize, int maxSize) {
+        this(poolFactory(manifest, withWASI, functions), minSize, maxSize);
+    }
+
+    /**
+     * @param factory Creates a new plugin instance
+     * @param minSize The number of instances created eagerly and kept alive
+     * @param maxSize The maximum number of instances
+     */
+    public PluginPool(Supplier<Plugin> factory, int minSize, int maxSize) {
+
+        Objects.requireNonNull(factory, "factory");
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException(String.format("Invalid pool size, min: %d, max: %d", minSize, maxSize));
+        }
+
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        try {
+            for (int i = 0; i < minSize; i++) {
+                size.incrementAndGet();
+                idle.offerLast(create());
+            }
+        } catch (RuntimeException e) {
+            Slot slot;
+            while ((slot = idle.pollFirst()) != null) {
+                destroy(slot);
+            }
+            throw e;
+        }
+    }
+
+    private static Supplier<Plugin> poolFactory(Manifest manifest, boolean withWASI, Supplier<HostFunction[]> functions) {
+        var manifestBytes = Plugin.serialize(manifest);
+        return () -> new Plugin(manifestBytes, withWASI, functions == null ? null : functions.get());
+    }
+
+    /**
+     * Evict idle instances above {@code minSize} once they have been unused for the given duration.
+     *
+     * @param idleTimeout the maximum idle time of an instance
+     * @return this pool
+     */
+    public synchronized PluginPool withIdleTimeout(Duration idleTimeout) {
+        Objects.requireNonNull(idleTimeout, "idleTimeout");
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be positive");
+        }
+
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        if (this.evictor != null) {
+            this.evictor.shutdownNow();
+        }
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "extism-plugin-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, this.idleTimeoutNanos / 2);
+        this.evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    /**
+     * Replace an instance after it has been used for the given number of calls.
+     * A value of {@literal 0} disables recycling.
+     *
+     * @param maxCallsPerPlugin the number of calls after which an instance is recycled
+     * @return this pool
+     */
+    public PluginPool withMaxCallsPerPlugin(long maxCallsPerPlugin) {
+        if (maxCallsPerPlugin < 0) {
+            throw new IllegalArgumentException("maxCallsPerPlugin must not be negative");
+        }
+        this.maxCallsPerPlugin = maxCallsPerPlugin;
+        return this;
+    }
+
+    /**
+     * Reset or replace instances according to the given policy when they are released.
+     *
+     * @param recyclePolicy the policy applied to released instances
+     * @return this pool
+     */
+    public PluginPool withRecyclePolicy(RecyclePolicy recyclePolicy) {
+        this.recyclePolicy = Objects.requireNonNull(recyclePolicy, "recyclePolicy");
+        return this;
+    }
+
+    /**
+     * Borrow an instance, waiting as long as necessary for one to become available.
+     *
+     * @return a plugin instance for the exclusive use of the caller
+     * @throws ExtismException if the pool is closed or the thread is interrupted
+     */
+    public Plugin borrow() {
+        return borrow(null);
+    }
+
+    /**
+     * Borrow an instance, waiting up to {@code timeout} for one to become available.
+     *
+     * @param timeout the maximum time to wait, or {@literal null} to wait indefinitely
+     * @return a plugin instance for the exclusive use of the caller
+     * @throws ExtismException if no instance became available in time, the pool is closed or the thread is interrupted
+     */
+    public Plugin borrow(Duration timeout) {
+        ensureOpen();
+        acquirePermit(timeout);
+        try {
+            ensureOpen();
+
+            var slot = idle.pollFirst();
+            while (slot == null) {
+                slot = tryCreate();
+                if (slot == null) {
+                    // all instances are accounted for, so one is just being returned to the idle deque
+                    slot = idle.pollFirst(1, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            if (closed) {
+                destroy(slot);
+                throw new ExtismException("Plugin pool is closed");
+            }
+            borrowed.put(slot.plugin, slot);
+            return slot.plugin;
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new ExtismException("Interrupted while waiting for a plugin instance", e);
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit(Duration timeout) {
+        try {
+            if (timeout == null) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ExtismException("Timed out after " + timeout + " waiting for a plugin instance");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExtismException("Interrupted while waiting for a plugin instance", e);
+        }
+    }
+
+    /**
+     * Return a borrowed instance to the pool.
+     *
+     * @param plugin the instance obtained from {@link #borrow()}
+     */
+    public void release(Plugin plugin) {
+        Objects.requireNonNull(plugin, "plugin");
+
+        var slot = borrowed.remove(plugin);
+        if (slot == null) {
+            throw new IllegalArgumentException("Plugin was not borrowed from this pool");
+        }
+
+        slot.calls++;
+        slot.lastUsed = System.nanoTime();
+
+        try {
+            long maxCalls = this.maxCallsPerPlugin;
+            if (closed || (maxCalls > 0 && slot.calls >= maxCalls) || recyclePolicy.apply(plugin)) {
+                destroy(slot);
+                try {
+                    replenish();
+                } catch (RuntimeException e) {
+                    // the call using the plugin already succeeded, borrow() creates the missing instances on demand
+                }
+                return;
+            }
+
+            idle.offerFirst(slot);
+        } finally {
+            // a waiting borrower takes the idle instance or creates a replacement for the destroyed one
+            permits.release();
+        }
+    }
+
+    /**
+     * Invoke a function on a pooled instance.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @return A byte array representing the raw output data
+     * @throws ExtismException if the call fails
+     * @see Plugin#call(String, byte[])
+     */
+    public byte[] call(String functionName, byte[] inputData) {
+        var plugin = borrow();
+        try {
+            return plugin.call(functionName, inputData);
+        } finally {
+            release(plugin);
+        }
+    }
+
+    /**
+     * Invoke a function on a pooled instance.
+     *
+     * @param functionName The name of the exported function to invoke
+     * @param input        The string representing the input data
+     * @return A string representing the output data
+     * @see Plugin#call(String, String)
+     */
+    public String call(String functionName, String input) {
+        var plugin = borrow();
+        try {
+            return plugin.call(functionName, input);
+        } finally {
+            release(plugin);
+        }
+    }
+
+    /**
+     * @return the number of live instances, idle or borrowed
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of idle instances
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return the number of borrowed instances
+     */
+    public int borrowedCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Frees all idle instances. Borrowed instances are freed when they are released.
+     * Threads waiting in {@link #borrow()} fail with an {@link ExtismException}.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (evictor != null) {
+                evictor.shutdownNow();
+            }
+        }
+
+        // wake all waiting borrowers, which find the pool closed
+        permits.release(Integer.MAX_VALUE / 2);
+
+        Slot slot;
+        while ((slot = idle.pollFirst()) != null) {
+            destroy(slot);
+        }
+    }
+
+    private Slot tryCreate() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= maxSize) {
+                return null;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        return create();
+    }
+
+    /**
+     * Creates a new instance, the caller must have reserved its place in {@link #size} before.
+     */
+    private Slot create() {
+        try {
+            return new Slot(factory.get());
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(Slot slot) {
+        size.decrementAndGet();
+        slot.plugin.free();
+    }
+
+    /**
+     * Keeps the pool at {@code minSize} after an instance has been recycled.
+     */
+    private void replenish() {
+        while (!closed) {
+            int current = size.get();
+            if (current >= minSize) {
+                return;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                idle.offerLast(create());
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long timeout = this.idleTimeoutNanos;
+
+        // the least recently used instances are at the end of the deque
+        Iterator<Slot> it = idle.descendingIterator();
+        while (it.hasNext() && size.get() > minSize) {
+            var slot = it.next();
+            if (now - slot.lastUsed >= timeout && idle.removeLastOccurrence(slot)) {
+                destroy(slot);
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ExtismException("Plugin pool is closed");
+        }
+    }
+
+    private static final class Slot {
+
+        private final Plugin plugin;
+
+        /**
+         * Only modified by the thread holding the instance
+         */
+        private long calls;
+
+        private volatile long lastUsed;
+
+        private Slot(Plugin plugin) {
+            this.plugin = plugin;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.extism.sdk;
+
+/**
+ * Decides when a long-lived {@link Plugin} is reset or replaced to keep its memory bounded.
+ * <p>
+ * A {@link Plugin#reset()} clears vars and Extism memory at a fraction of the cost of a new instance,
+ * but guest linear memory never shrinks, so bounding it requires a replacement.
+ * Used by {@link PluginPool#withRecyclePolicy(RecyclePolicy)} and {@link ShardedPlugin#withRecyclePolicy(RecyclePolicy)}.
+ * <p>
+ * Instances are immutable, thresholds of {@literal 0} are disabled.
+ */
+public final class RecyclePolicy {
+
+    private static final RecyclePolicy NONE = new RecyclePolicy(0, 0, 0);
+
+    /**
+     * What to do with a plugin after a call.
+     */
+    public enum Action {
+        KEEP, RESET, REPLACE
+    }
+
+    private final long resetAfterCalls;
+
+    private final long replaceAfterCalls;
+
+    private final long replaceAfterPayloadBytes;
+
+    private RecyclePolicy(long resetAfterCalls, long replaceAfterCalls, long replaceAfterPayloadBytes) {
+        this.resetAfterCalls = resetAfterCalls;
+        this.replaceAfterCalls = replaceAfterCalls;
+        this.replaceAfterPayloadBytes = replaceAfterPayloadBytes;
+    }
+
+    /**
+     * @return a policy which keeps plugins forever
+     */
+    public static RecyclePolicy none() {
+        return NONE;
+    }
+
+    /**
+     * @param calls the number of calls after which a plugin is reset
+     * @return a copy of this policy
+     * @see Plugin#callCount()
+     */
+    public RecyclePolicy withResetAfterCalls(long calls) {
+        return new RecyclePolicy(requirePositiveOrZero(calls, "calls"), replaceAfterCalls, replaceAfterPayloadBytes);
+    }
+
+    /**
+     * @param calls the number of calls since its creation after which a plugin is replaced, resets included
+     * @return a copy of this policy
+     * @see Plugin#lifetimeCallCount()
+     */
+    public RecyclePolicy withReplaceAfterCalls(long calls) {
+        return new RecyclePolicy(resetAfterCalls, requirePositiveOrZero(calls, "calls"), replaceAfterPayloadBytes);
+    }
+
+    /**
+     * @param bytes the peak payload size after which a plugin is replaced
+     * @return a copy of this policy
+     * @see Plugin#peakPayloadBytes()
+     */
+    public RecyclePolicy withReplaceAfterPayloadBytes(long bytes) {
+        return new RecyclePolicy(resetAfterCalls, replaceAfterCalls, requirePositiveOrZero(bytes, "bytes"));
+    }
+
+    /**
+     * @param plugin a plugin which just completed a call
+     * @return what to do with the plugin
+     */
+    public Action evaluate(Plugin plugin) {
+        if (replaceAfterPayloadBytes > 0 && plugin.peakPayloadBytes() >= replaceAfterPayloadBytes) {
+            return Action.REPLACE;
+        }
+        if (replaceAfterCalls > 0 && plugin.lifetimeCallCount() >= replaceAfterCalls) {
+            return Action.REPLACE;
+        }
+        if (resetAfterCalls > 0 && plugin.callCount() >= resetAfterCalls) {
+            return Action.RESET;
+        }
+        return Action.KEEP;
+    }
+
+    /**
+     * Applies the policy to a plugin which just completed a call.
+     *
+     * @return {@literal true} if the plugin must be replaced, it has already been reset otherwise if needed
+     */
+    boolean apply(Plugin plugin) {
+        switch (evaluate(plugin)) {
+            case REPLACE:
+                return true;
+            case RESET:
+                // a plugin which cannot be reset is replaced instead
+                return !plugin.reset();
+            default:
+                return false;
+        }
+    }
+
+    private static long requirePositiveOrZero(long value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return value;
+    }
+}
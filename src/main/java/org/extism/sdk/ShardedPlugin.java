@@ -0,0 +1,277 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of {@link Plugin} instances, each call being routed to an instance by a key.
+ * <p>
+ * Plugins keeping per-session state in guest memory or vars need all calls of a session to reach the same
+ * instance, which a {@link PluginPool} cannot guarantee. Keys are mapped to shards with a jump consistent hash,
+ * so a key always reaches the same shard. Each shard has its own lock, so calls for keys of different shards
+ * run in parallel while calls within a shard are serialized.
+ * <p>
+ * {@link #recycle(int)} replaces the instance of a single shard, the state of the other shards is kept.
+ */
+public class ShardedPlugin implements AutoCloseable {
+
+    private final Supplier<Plugin> factory;
+
+    private final Shard[] shards;
+
+    private volatile RecyclePolicy recyclePolicy = RecyclePolicy.none();
+
+    private volatile boolean closed;
+
+    /**
+     * @param manifest  The manifest for the plugins
+     * @param withWASI  Set to true to enable WASI
+     * @param functions Creates the host functions for each new plugin, may be {@literal null}
+     * @param shards    The number of instances
+     */
+    public ShardedPlugin(Manifest manifest, boolean withWASI, Supplier<HostFunction[]> functions, int shards) {
+        this(shardFactory(manifest, withWASI, functions), shards);
+    }
+
+    /**
+     * @param factory Creates a new plugin instance
+     * @param shards  The number of instances
+     */
+    public ShardedPlugin(Supplier<Plugin> factory, int shards) {
+
+        Objects.requireNonNull(factory, "factory");
+        if (shards < 1) {
+            throw new IllegalArgumentException("Invalid number of shards: " + shards);
+        }
+
+        this.factory = factory;
+        this.shards = new Shard[shards];
+        try {
+            for (int i = 0; i < shards; i++) {
+                this.shards[i] = new Shard(factory.get());
+            }
+        } catch (RuntimeException e) {
+            for (var shard : this.shards) {
+                if (shard != null) {
+                    shard.plugin.free();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static Supplier<Plugin> shardFactory(Manifest manifest, boolean withWASI, Supplier<HostFunction[]> functions) {
+        var manifestBytes = Plugin.serialize(manifest);
+        return () -> new Plugin(manifestBytes, withWASI, functions == null ? null : functions.get());
+    }
+
+    /**
+     * Reset or replace the instance of a shard according to the given policy after each call.
+     * Replacing an instance loses the state of the keys of its shard.
+     *
+     * @param recyclePolicy the policy applied after each call
+     * @return this sharded plugin
+     */
+    public ShardedPlugin withRecyclePolicy(RecyclePolicy recyclePolicy) {
+        this.recyclePolicy = Objects.requireNonNull(recyclePolicy, "recyclePolicy");
+        return this;
+    }
+
+    /**
+     * Invoke a function on the instance owning the key.
+     *
+     * @param key          The routing key, e.g. a session id
+     * @param functionName The name of the exported function to invoke
+     * @param inputData    The raw bytes representing any input data
+     * @return A byte array representing the raw output data
+     * @throws ExtismException if the call fails or the thread is interrupted while waiting for the shard
+     */
+    public byte[] call(String key, String functionName, byte[] inputData) {
+        return withPlugin(key, plugin -> plugin.call(functionName, inputData));
+    }
+
+    /**
+     * Invoke a function on the instance owning the key.
+     *
+     * @param key          The routing key, e.g. a session id
+     * @param functionName The name of the exported function to invoke
+     * @param input        The string representing the input data
+     * @return A string representing the output data
+     * @see #call(String, String, byte[])
+     */
+    public String call(String key, String functionName, String input) {
+        return withPlugin(key, plugin -> plugin.call(functionName, input));
+    }
+
+    /**
+     * Run an action with exclusive access to the instance owning the key, e.g. to make several calls
+     * without calls of other keys in between. The instance must not be used after the action returns.
+     *
+     * @param key    The routing key
+     * @param action The action using the instance
+     * @return the result of the action
+     */
+    public <R> R withPlugin(String key, Function<Plugin, R> action) {
+        Objects.requireNonNull(action, "action");
+
+        var shard = shards[shardFor(key)];
+        shard.lock();
+        try {
+            ensureOpen();
+            var result = action.apply(shard.plugin);
+            if (recyclePolicy.apply(shard.plugin)) {
+                replace(shard);
+            }
+            return result;
+        } finally {
+            shard.unlock();
+        }
+    }
+
+    /**
+     * @param key The routing key
+     * @return the index of the shard owning the key
+     */
+    public int shardFor(String key) {
+        Objects.requireNonNull(key, "key");
+        return shard(key, shards.length);
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param shard The index of the shard
+     * @return the number of calls running on or waiting for the shard
+     */
+    public int queueDepth(int shard) {
+        return shards[Objects.checkIndex(shard, shards.length)].depth.get();
+    }
+
+    /**
+     * Replace the instance of a shard by a new one, e.g. after its memory has grown too large.
+     * Waits for the running call of the shard, the state of its keys is lost.
+     *
+     * @param shard The index of the shard
+     */
+    public void recycle(int shard) {
+        var target = shards[Objects.checkIndex(shard, shards.length)];
+        target.lock();
+        try {
+            ensureOpen();
+            replace(target);
+        } finally {
+            target.unlock();
+        }
+    }
+
+    /**
+     * Replaces the instance of a shard, the caller must hold its lock.
+     */
+    private void replace(Shard shard) {
+        // create the replacement first, so the shard keeps a usable instance if that fails
+        var replacement = factory.get();
+        shard.plugin.free();
+        shard.plugin = replacement;
+    }
+
+    /**
+     * Frees all instances, waiting for running calls to complete.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        for (var shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.plugin.free();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ExtismException("Sharded plugin is closed");
+        }
+    }
+
+    /**
+     * Maps a key to a shard with the jump consistent hash of Lamping and Veach.
+     */
+    static int shard(String key, int shards) {
+        long hash = hash(key);
+        long b = -1;
+        long j = 0;
+        while (j < shards) {
+            b = j;
+            hash = hash * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((hash >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 bytes of the key, stable across JVMs unlike {@link String#hashCode()}.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Calls running on or waiting for this shard
+         */
+        private final AtomicInteger depth = new AtomicInteger();
+
+        /**
+         * Guarded by {@link #lock}
+         */
+        private Plugin plugin;
+
+        private Shard(Plugin plugin) {
+            this.plugin = plugin;
+        }
+
+        private void lock() {
+            depth.incrementAndGet();
+            try {
+                lock.lockInterruptibly();
+            } catch (InterruptedException e) {
+                depth.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new ExtismException("Interrupted while waiting for a plugin shard", e);
+            }
+        }
+
+        private void unlock() {
+            lock.unlock();
+            depth.decrementAndGet();
+        }
+    }
+}
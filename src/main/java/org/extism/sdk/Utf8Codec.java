@@ -0,0 +1,76 @@
+package org.extism.sdk;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes strings with a reused encoder per thread and decodes them through a reused scratch array.
+ */
+final class Utf8Codec implements Codec<String, String> {
+
+    static final Utf8Codec INSTANCE = new Utf8Codec();
+
+    /**
+     * Scratch arrays above this size are not retained, so a single large output does not pin memory
+     */
+    private static final int MAX_RETAINED_SCRATCH_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<CharsetEncoder> ENCODER = ThreadLocal.withInitial(Utf8Codec::newEncoder);
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    private Utf8Codec() {
+    }
+
+    static CharsetEncoder newEncoder() {
+        return StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public void encode(String value, ByteBuffer target) {
+        var encoder = ENCODER.get().reset();
+        var chars = CharBuffer.wrap(value);
+        check(encoder.encode(chars, target, true));
+        check(encoder.flush(target));
+    }
+
+    private static void check(CoderResult result) {
+        if (result.isOverflow()) {
+            throw new BufferOverflowException();
+        }
+    }
+
+    @Override
+    public String decode(ByteBuffer source) {
+        int length = source.remaining();
+        if (length == 0) {
+            return "";
+        }
+
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+            if (length <= MAX_RETAINED_SCRATCH_SIZE) {
+                SCRATCH.set(scratch);
+            }
+        }
+        // the String constructor has intrinsics for UTF-8, which beat a CharsetDecoder
+        source.duplicate().get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the length of the string, exact for ASCII
+     */
+    @Override
+    public long sizeHint(String value) {
+        return value.length();
+    }
+}
@@ -1,30 +1,45 @@
 package org.extism.sdk.manifest;
 
 import com.google.gson.annotations.SerializedName;
+import org.extism.sdk.wasm.WasmDownloadCache;
 import org.extism.sdk.wasm.WasmSource;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class Manifest {
 
     @SerializedName("wasm")
-    private final List<WasmSource> sources;
+    final List<WasmSource> sources;
 
     @SerializedName("memory")
-    private final MemoryOptions memoryOptions;
+    final MemoryOptions memoryOptions;
 
     // FIXME remove this and related stuff if not supported in java-sdk
     @SerializedName("allowed_hosts")
-    private final List<String> allowedHosts;
+    final List<String> allowedHosts;
 
     @SerializedName("allowed_paths")
-    private final Map<String, String> allowedPaths;
+    final Map<String, String> allowedPaths;
 
     @SerializedName("config")
-    private final Map<String, String> config;
+    final Map<String, String> config;
+
+    @SerializedName("timeout_ms")
+    final Long timeoutMs;
+
+    /**
+     * Incremented by every mutation made through the manifest, to tell whether {@link #serialized} is still current
+     */
+    private transient volatile int modCount;
+
+    /**
+     * The last serialized form, reused while the content is unchanged
+     */
+    private transient volatile Serialized serialized;
 
     public Manifest() {
         this(new ArrayList<>(), null, null, null, null);
@@ -51,15 +66,25 @@ public class Manifest {
     }
 
     public Manifest(List<WasmSource> sources, MemoryOptions memoryOptions, Map<String, String> config, List<String> allowedHosts, Map<String, String> allowedPaths) {
-        this.sources = sources;
+        this(sources, memoryOptions, config, allowedHosts, allowedPaths, null);
+    }
+
+    /**
+     * @param timeoutMs the maximum duration of a plugin call in milliseconds, enforced by the runtime
+     */
+    public Manifest(List<WasmSource> sources, MemoryOptions memoryOptions, Map<String, String> config, List<String> allowedHosts, Map<String, String> allowedPaths, Long timeoutMs) {
+        // copied, so the cached serialized form can only be invalidated through the manifest
+        this.sources = sources == null ? null : new ArrayList<>(sources);
         this.memoryOptions = memoryOptions;
-        this.config = config;
-        this.allowedHosts = allowedHosts;
-        this.allowedPaths = allowedPaths;
+        this.config = config == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(config));
+        this.allowedHosts = allowedHosts == null ? null : Collections.unmodifiableList(new ArrayList<>(allowedHosts));
+        this.allowedPaths = allowedPaths == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(allowedPaths));
+        this.timeoutMs = timeoutMs;
     }
 
     public void addSource(WasmSource source) {
         this.sources.add(source);
+        this.modCount++;
     }
 
     public List<WasmSource> getSources() {
@@ -90,4 +115,59 @@ public class Manifest {
         }
         return Collections.unmodifiableMap(allowedPaths);
     }
+
+    /**
+     * @return the maximum duration of a plugin call in milliseconds, or {@literal null} if unbounded
+     */
+    public Long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Serializes this manifest to compact UTF-8 JSON, as expected by the runtime.
+     * <p>
+     * The result is cached until the manifest is modified through {@link #addSource(WasmSource)}, so creating many
+     * plugins from the same manifest serializes it once. The lists and maps passed to the constructor are copied,
+     * later changes to them do not affect the manifest. The data of a {@link org.extism.sdk.wasm.ByteArrayWasmSource}
+     * is not copied, it must not be modified after it has been added.
+     *
+     * @return a copy of the JSON bytes
+     */
+    public byte[] toJsonBytes() {
+        return jsonBytes().clone();
+    }
+
+    /**
+     * @return the cached JSON bytes, which are shared and must not be modified
+     */
+    private byte[] jsonBytes() {
+        int modCount = this.modCount;
+        var downloadCache = WasmDownloadCache.getDefault();
+        var cached = this.serialized;
+        if (cached != null && cached.modCount == modCount && cached.downloadCache == downloadCache) {
+            return cached.bytes;
+        }
+
+        var bytes = ManifestSerializer.serialize(this);
+        this.serialized = new Serialized(modCount, downloadCache, bytes);
+        return bytes;
+    }
+
+    /**
+     * The serialized form along with the modification count and the download cache url sources were resolved with
+     */
+    private static final class Serialized {
+
+        private final int modCount;
+
+        private final WasmDownloadCache downloadCache;
+
+        private final byte[] bytes;
+
+        private Serialized(int modCount, WasmDownloadCache downloadCache, byte[] bytes) {
+            this.modCount = modCount;
+            this.downloadCache = downloadCache;
+            this.bytes = bytes;
+        }
+    }
 }
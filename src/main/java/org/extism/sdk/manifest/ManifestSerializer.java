@@ -0,0 +1,373 @@
+package org.extism.sdk.manifest;
+
+import org.extism.sdk.support.JsonSerde;
+import org.extism.sdk.wasm.ByteArrayWasmSource;
+import org.extism.sdk.wasm.PathWasmSource;
+import org.extism.sdk.wasm.UrlWasmSource;
+import org.extism.sdk.wasm.WasmDownloadCache;
+import org.extism.sdk.wasm.WasmSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link Manifest} as compact JSON straight into UTF-8 bytes.
+ * <p>
+ * Unlike a reflective {@link com.google.gson.Gson} instance, it produces no intermediate strings:
+ * the data of {@link ByteArrayWasmSource ByteArrayWasmSources} is base64-encoded directly into the output.
+ * The output matches the names and layout of {@link JsonSerde}, without the whitespace.
+ */
+final class ManifestSerializer {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    /**
+     * Larger buffers are not kept, so serializing a large module does not pin its size for the lifetime of the thread
+     */
+    private static final int RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Utf8Buffer> BUFFER = ThreadLocal.withInitial(() -> new Utf8Buffer(INITIAL_BUFFER_SIZE));
+
+    private ManifestSerializer() {
+    }
+
+    static byte[] serialize(Manifest manifest) {
+        var buffer = BUFFER.get();
+        buffer.reset();
+        // large modules dominate the size, so the buffer is grown once for all of them
+        buffer.ensureCapacity(estimateSize(manifest));
+        try {
+            writeManifest(buffer, manifest);
+            return buffer.toByteArray();
+        } finally {
+            if (buffer.capacity() > RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Estimates the size of the output from the size of the encoded module data, plus some room for the rest.
+     */
+    private static long estimateSize(Manifest manifest) {
+        long size = 1024;
+        if (manifest.sources != null) {
+            for (var source : manifest.sources) {
+                size += 256;
+                if (source instanceof ByteArrayWasmSource && ((ByteArrayWasmSource) source).data() != null) {
+                    size += 4L * ((((ByteArrayWasmSource) source).data().length + 2) / 3);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void writeManifest(Utf8Buffer out, Manifest manifest) {
+        out.writeByte('{');
+        boolean first = true;
+
+        if (manifest.sources != null) {
+            first = out.writeName("wasm", first);
+            out.writeByte('[');
+            for (int i = 0; i < manifest.sources.size(); i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                writeSource(out, manifest.sources.get(i));
+            }
+            out.writeByte(']');
+        }
+
+        var memory = manifest.memoryOptions;
+        if (memory != null) {
+            first = out.writeName("memory", first);
+            out.writeByte('{');
+            boolean firstOption = true;
+            if (memory.getMaxPages() != null) {
+                firstOption = out.writeName("max_pages", firstOption);
+                out.writeLong(memory.getMaxPages());
+            }
+            if (memory.getMaxHttpResponseBytes() != null) {
+                out.writeName("max_http_response_bytes", firstOption);
+                out.writeLong(memory.getMaxHttpResponseBytes());
+            }
+            out.writeByte('}');
+        }
+
+        if (manifest.allowedHosts != null) {
+            first = out.writeName("allowed_hosts", first);
+            writeList(out, manifest.allowedHosts);
+        }
+
+        if (manifest.allowedPaths != null) {
+            first = out.writeName("allowed_paths", first);
+            writeMap(out, manifest.allowedPaths);
+        }
+
+        if (manifest.config != null) {
+            first = out.writeName("config", first);
+            writeMap(out, manifest.config);
+        }
+
+        if (manifest.timeoutMs != null) {
+            out.writeName("timeout_ms", first);
+            out.writeLong(manifest.timeoutMs);
+        }
+
+        out.writeByte('}');
+    }
+
+    private static void writeSource(Utf8Buffer out, WasmSource source) {
+        if (source == null) {
+            out.writeAscii("null");
+            return;
+        }
+
+        if (source instanceof ByteArrayWasmSource) {
+            var bytes = (ByteArrayWasmSource) source;
+            out.writeByte('{');
+            boolean first = out.writeStringField("name", bytes.name(), true);
+            if (bytes.data() != null) {
+                first = out.writeName("data", first);
+                out.writeBase64(bytes.data());
+            }
+            out.writeStringField("hash", bytes.hash(), first);
+            out.writeByte('}');
+        } else if (source instanceof PathWasmSource) {
+            var path = (PathWasmSource) source;
+            out.writeByte('{');
+            boolean first = out.writeStringField("name", path.name(), true);
+            first = out.writeStringField("path", path.path(), first);
+            out.writeStringField("hash", path.hash(), first);
+            out.writeByte('}');
+        } else if (source instanceof UrlWasmSource) {
+            var downloadCache = WasmDownloadCache.getDefault();
+            if (downloadCache != null) {
+                writeSource(out, downloadCache.resolve((UrlWasmSource) source));
+                return;
+            }
+
+            var url = (UrlWasmSource) source;
+            out.writeByte('{');
+            boolean first = out.writeStringField("name", url.name(), true);
+            first = out.writeStringField("url", url.url(), first);
+            out.writeStringField("hash", url.hash(), first);
+            out.writeByte('}');
+        } else {
+            // custom sources keep their reflective mapping
+            out.writeUtf8(JsonSerde.toJson(source));
+        }
+    }
+
+    private static void writeList(Utf8Buffer out, List<String> values) {
+        out.writeByte('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            out.writeString(values.get(i));
+        }
+        out.writeByte(']');
+    }
+
+    private static void writeMap(Utf8Buffer out, Map<String, String> values) {
+        out.writeByte('{');
+        boolean first = true;
+        for (var entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                // like Gson, which does not serialize nulls
+                continue;
+            }
+            if (!first) {
+                out.writeByte(',');
+            }
+            first = false;
+            out.writeString(String.valueOf(entry.getKey()));
+            out.writeByte(':');
+            out.writeString(entry.getValue());
+        }
+        out.writeByte('}');
+    }
+
+    /**
+     * A growable byte buffer with JSON writing primitives.
+     */
+    static final class Utf8Buffer extends OutputStream {
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] bytes;
+
+        private int count;
+
+        Utf8Buffer(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        int capacity() {
+            return bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, count);
+        }
+
+        void ensureCapacity(long additional) {
+            long required = count + additional;
+            if (required > bytes.length) {
+                if (required > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Manifest is too large to serialize: " + required + " bytes");
+                }
+                bytes = Arrays.copyOf(bytes, (int) Math.max(required, Math.min(Integer.MAX_VALUE - 8, bytes.length * 2L)));
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[count++] = (byte) b;
+        }
+
+        /**
+         * Writes the separator and name of an object member.
+         *
+         * @param first whether this is the first member of the object
+         * @return {@literal false}, the value of {@code first} for the next member
+         */
+        boolean writeName(String name, boolean first) {
+            if (!first) {
+                writeByte(',');
+            }
+            writeByte('"');
+            writeAscii(name);
+            writeByte('"');
+            writeByte(':');
+            return false;
+        }
+
+        /**
+         * Writes a string member, omitted if the value is {@literal null}.
+         *
+         * @return the value of {@code first} for the next member
+         */
+        boolean writeStringField(String name, String value, boolean first) {
+            if (value == null) {
+                return first;
+            }
+            writeName(name, first);
+            writeString(value);
+            return false;
+        }
+
+        void writeAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[count++] = (byte) value.charAt(i);
+            }
+        }
+
+        void writeUtf8(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            write(encoded, 0, encoded.length);
+        }
+
+        void writeLong(long value) {
+            writeAscii(Long.toString(value));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeAscii("null");
+                return;
+            }
+
+            // worst case of 6 bytes for an escaped control character
+            ensureCapacity(2 + 6L * value.length());
+            byte[] b = bytes;
+            int n = count;
+            b[n++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"' || c == '\\') {
+                        b[n++] = '\\';
+                        b[n++] = (byte) c;
+                    } else if (c < 0x20) {
+                        b[n++] = '\\';
+                        switch (c) {
+                            case '\n':
+                                b[n++] = 'n';
+                                break;
+                            case '\r':
+                                b[n++] = 'r';
+                                break;
+                            case '\t':
+                                b[n++] = 't';
+                                break;
+                            default:
+                                b[n++] = 'u';
+                                b[n++] = '0';
+                                b[n++] = '0';
+                                b[n++] = HEX[c >> 4];
+                                b[n++] = HEX[c & 0xf];
+                        }
+                    } else {
+                        b[n++] = (byte) c;
+                    }
+                } else if (c < 0x800) {
+                    b[n++] = (byte) (0xc0 | (c >> 6));
+                    b[n++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    b[n++] = (byte) (0xf0 | (cp >> 18));
+                    b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    b[n++] = (byte) (0x80 | (cp & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, replaced like String.getBytes does
+                    b[n++] = '?';
+                } else {
+                    b[n++] = (byte) (0xe0 | (c >> 12));
+                    b[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    b[n++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            b[n++] = '"';
+            count = n;
+        }
+
+        void writeBase64(byte[] data) {
+            // size the buffer once for the whole encoded value
+            ensureCapacity(2 + 4L * ((data.length + 2) / 3));
+            writeByte('"');
+            // closing the encoder flushes the padding, closing this buffer does nothing
+            try (var encoder = Base64.getEncoder().wrap(this)) {
+                encoder.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            writeByte('"');
+        }
+    }
+}
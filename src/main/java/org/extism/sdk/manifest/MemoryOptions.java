@@ -20,4 +20,12 @@ public class MemoryOptions {
         this.maxPages = maxPages;
         this.maxHttpResponseBytes = httpMax;
     }
+
+    public Integer getMaxPages() {
+        return maxPages;
+    }
+
+    public Integer getMaxHttpResponseBytes() {
+        return maxHttpResponseBytes;
+    }
 }
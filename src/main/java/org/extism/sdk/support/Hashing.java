@@ -1,20 +1,78 @@
 package org.extism.sdk.support;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class Hashing {
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Files up to this size are read into a heap buffer, larger ones are mapped
+     */
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Larger files are mapped in chunks of this size to bound the address space in use
+     */
+    private static final long MAP_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     public static String sha256HexDigest(byte[] input) {
-        try {
-            var messageDigest = MessageDigest.getInstance("SHA-256");
-            var messageDigestBytes = messageDigest.digest(input);
+        return toHex(sha256().digest(input));
+    }
 
-            var hexString = new StringBuilder();
-            for (var b : messageDigestBytes) {
-                hexString.append(String.format("%02x", b));
+    /**
+     * Hashes a file without loading it into the heap.
+     *
+     * @param file the file to hash
+     * @return the hex encoded SHA-256 digest of the file content
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256HexDigest(Path file) throws IOException {
+        var messageDigest = sha256();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= MAP_THRESHOLD) {
+                var buffer = ByteBuffer.allocate((int) Math.min(Math.max(size, 1), READ_BUFFER_SIZE));
+                while (channel.read(buffer) > 0) {
+                    buffer.flip();
+                    messageDigest.update(buffer);
+                    buffer.clear();
+                }
+            } else {
+                for (long position = 0; position < size; position += MAP_CHUNK_SIZE) {
+                    long length = Math.min(MAP_CHUNK_SIZE, size - position);
+                    messageDigest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                }
             }
-            return hexString.toString();
-        } catch (Exception e) {
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    /**
+     * @param bytes the bytes to encode
+     * @return the lower case hex representation of the bytes
+     */
+    public static String toHex(byte[] bytes) {
+        var chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
     }
@@ -5,6 +5,7 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSource;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -21,19 +22,25 @@ public class JsonSerde {
                 // needed to convert the byte[] to a base64 encoded String
                 .registerTypeHierarchyAdapter(byte[].class, new ByteArrayAdapter()) //
                 .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES) //
-                .setPrettyPrinting() //
                 .create();
     }
 
     public static String toJson(Manifest manifest) {
-        return GSON.toJson(manifest);
+        return new String(manifest.toJsonBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes a custom {@link WasmSource} reflectively.
+     */
+    public static String toJson(WasmSource source) {
+        return GSON.toJson(source);
     }
 
     private static class ByteArrayAdapter extends TypeAdapter<byte[]> {
 
         @Override
         public void write(JsonWriter out, byte[] byteValue) throws IOException {
-            out.value(new String(Base64.getEncoder().encode(byteValue)));
+            out.value(Base64.getEncoder().encodeToString(byteValue));
         }
 
         @Override
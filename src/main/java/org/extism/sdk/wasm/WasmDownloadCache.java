@@ -0,0 +1,280 @@
+package org.extism.sdk.wasm;
+
+import org.extism.sdk.ExtismException;
+import org.extism.sdk.support.Hashing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local, content-addressed cache of modules downloaded from {@link UrlWasmSource UrlWasmSources}.
+ * <p>
+ * Each module is stored as {@code <sha256>.wasm} in the cache directory, so a source with a known
+ * {@link WasmSource#hash() hash} is served without any request. Otherwise each URL is fetched once per cache
+ * instance, revalidating a previous download with {@code If-None-Match} and {@code If-Modified-Since}.
+ * Downloads are verified against the expected hash before they are stored.
+ * <p>
+ * Once installed with {@link #setDefault(WasmDownloadCache)}, url sources are replaced by the cached file
+ * when a {@link org.extism.sdk.manifest.Manifest} is serialized.
+ */
+public class WasmDownloadCache {
+
+    private static final String ETAG = "etag";
+
+    private static final String LAST_MODIFIED = "last-modified";
+
+    private static final String HASH = "hash";
+
+    private static volatile WasmDownloadCache defaultCache;
+
+    private final Path directory;
+
+    private final HttpClient client;
+
+    private final Duration requestTimeout;
+
+    /**
+     * Downloads by url, completed with the hash of the module
+     */
+    private final Map<String, CompletableFuture<String>> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory the directory of the cache, created if missing
+     */
+    public WasmDownloadCache(Path directory) {
+        this(directory, Duration.ofSeconds(60));
+    }
+
+    /**
+     * @param directory      the directory of the cache, created if missing
+     * @param requestTimeout the maximum duration of a download
+     */
+    public WasmDownloadCache(Path directory, Duration requestTimeout) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(requestTimeout, "requestTimeout");
+
+        try {
+            this.directory = Files.createDirectories(directory.toAbsolutePath().normalize());
+        } catch (IOException ioe) {
+            throw new ExtismException("Could not create download cache directory: " + directory, ioe);
+        }
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * @return the cache used when serializing manifests, or {@literal null} if url sources are passed to the runtime
+     */
+    public static WasmDownloadCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * @param cache the cache used when serializing manifests, or {@literal null} to pass url sources to the runtime
+     */
+    public static void setDefault(WasmDownloadCache cache) {
+        defaultCache = cache;
+    }
+
+    /**
+     * @return the directory of the cache
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Resolves a url source to the cached module, downloading it if needed.
+     *
+     * @param source the source to resolve
+     * @return a source referencing the cached module
+     * @throws ExtismException if the download fails or the module does not match the expected hash
+     */
+    public PathWasmSource resolve(UrlWasmSource source) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(source.url(), "source.url");
+
+        var expected = source.hash();
+        if (expected != null && !isSha256Hex(expected)) {
+            throw new ExtismException("Invalid sha256 hash for " + source.url() + ": " + expected);
+        }
+        if (expected != null && Files.isRegularFile(modulePath(expected))) {
+            return new PathWasmSource(source.name(), modulePath(expected).toString(), expected);
+        }
+
+        var hash = download(source.url(), expected);
+        // a concurrent download of the same url may have expected another hash
+        verify(source.url(), expected, hash);
+        return new PathWasmSource(source.name(), modulePath(hash).toString(), hash);
+    }
+
+    private static void verify(String url, String expected, String actual) {
+        if (expected != null && !expected.equalsIgnoreCase(actual)) {
+            throw new ExtismException(String.format("Hash mismatch for %s, expected: %s, actual: %s", url, expected, actual));
+        }
+    }
+
+    private String download(String url, String expected) {
+        var download = new CompletableFuture<String>();
+        var existing = downloads.putIfAbsent(url, download);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            var hash = fetch(url, expected);
+            download.complete(hash);
+            return hash;
+        } catch (RuntimeException e) {
+            // a later resolve retries
+            downloads.remove(url, download);
+            download.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private String fetch(String url, String expected) {
+        var metadataPath = directory.resolve(Hashing.sha256HexDigest(url.getBytes(StandardCharsets.UTF_8)) + ".properties");
+        var metadata = readMetadata(metadataPath);
+        var cachedHash = metadata.getProperty(HASH);
+        boolean cached = cachedHash != null && isSha256Hex(cachedHash) && Files.isRegularFile(modulePath(cachedHash));
+
+        var request = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET();
+        if (cached) {
+            if (metadata.getProperty(ETAG) != null) {
+                request.header("If-None-Match", metadata.getProperty(ETAG));
+            }
+            if (metadata.getProperty(LAST_MODIFIED) != null) {
+                request.header("If-Modified-Since", metadata.getProperty(LAST_MODIFIED));
+            }
+        }
+
+        Path tempFile = null;
+        try {
+            var response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            try (var body = response.body()) {
+                if (cached && response.statusCode() == 304) {
+                    return cachedHash;
+                }
+                if (response.statusCode() != 200) {
+                    throw new ExtismException("Could not download " + url + ", status: " + response.statusCode());
+                }
+
+                tempFile = Files.createTempFile(directory, "download", ".tmp");
+                var hash = copy(body, tempFile);
+                verify(url, expected, hash);
+                Files.move(tempFile, modulePath(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                tempFile = null;
+
+                var updated = new Properties();
+                updated.setProperty(HASH, hash);
+                response.headers().firstValue("ETag").ifPresent(etag -> updated.setProperty(ETAG, etag));
+                response.headers().firstValue("Last-Modified").ifPresent(date -> updated.setProperty(LAST_MODIFIED, date));
+                writeMetadata(metadataPath, updated);
+                return hash;
+            }
+        } catch (IOException ioe) {
+            throw new ExtismException("Could not download " + url, ioe);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ExtismException("Interrupted while downloading " + url, ie);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the body to a file while hashing it.
+     *
+     * @return the hex encoded SHA-256 digest of the body
+     */
+    private static String copy(InputStream body, Path file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ExtismException("SHA-256 is not available", e);
+        }
+
+        var buffer = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return Hashing.toHex(messageDigest.digest());
+    }
+
+    /**
+     * @param hash a lowercase hex sha256 digest, which is safe to use as a file name
+     */
+    private Path modulePath(String hash) {
+        return directory.resolve(hash + ".wasm");
+    }
+
+    private static boolean isSha256Hex(String hash) {
+        if (hash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Properties readMetadata(Path path) {
+        var metadata = new Properties();
+        if (Files.isRegularFile(path)) {
+            try (var in = Files.newInputStream(path)) {
+                metadata.load(in);
+            } catch (IOException ignored) {
+                // unreadable metadata only costs a full download
+            }
+        }
+        return metadata;
+    }
+
+    private void writeMetadata(Path path, Properties metadata) throws IOException {
+        var tempFile = Files.createTempFile(directory, "metadata", ".tmp");
+        try (var out = Files.newOutputStream(tempFile)) {
+            metadata.store(out, null);
+        }
+        Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
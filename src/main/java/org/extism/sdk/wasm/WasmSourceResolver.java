@@ -4,16 +4,37 @@ import org.extism.sdk.ExtismException;
 import org.extism.sdk.support.Hashing;
 
 import java.io.IOException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Resolves {@link WasmSource} from {@link Path Path's} or raw bytes.
+ * <p>
+ * Hashes of files are cached by path, size and modification time, so resolving an unchanged file again
+ * does not read it. The cache holds the 1024 most recently resolved files.
  */
 public class WasmSourceResolver {
 
+    private static final int HASH_CACHE_SIZE = 1024;
+
+    /**
+     * Shared by all resolvers, since they are usually created per use. Guarded by itself, as lookups reorder it.
+     */
+    private static final Map<Path, FileHash> HASH_CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileHash> eldest) {
+            return size() > HASH_CACHE_SIZE;
+        }
+    };
+
     public PathWasmSource resolve(Path path) {
         return resolve(null, path);
     }
@@ -32,9 +53,64 @@ public class WasmSourceResolver {
         return new ByteArrayWasmSource(name, bytes, hash(bytes));
     }
 
+    /**
+     * Resolves all {@code .wasm} files in a directory, hashing them in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param directory the directory containing the modules, subdirectories are not searched
+     * @return the sources ordered by file name
+     */
+    public List<PathWasmSource> resolveAll(Path directory) {
+        return resolveAll(directory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resolves all {@code .wasm} files in a directory, hashing them in parallel on the given pool.
+     *
+     * @param directory the directory containing the modules, subdirectories are not searched
+     * @param pool      the pool hashing the files
+     * @return the sources ordered by file name
+     */
+    public List<PathWasmSource> resolveAll(Path directory, ForkJoinPool pool) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(pool, "pool");
+
+        List<Path> wasmFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            wasmFiles = files
+                    .filter(file -> file.getFileName().toString().endsWith(".wasm") && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException ioe) {
+            throw new ExtismException("Could not list wasm files in directory: " + directory, ioe);
+        }
+
+        // a parallel stream started from a pool task runs on that pool
+        return pool.submit(() -> wasmFiles.parallelStream()
+                .map(this::resolve)
+                .collect(Collectors.toList())).join();
+    }
+
     protected String hash(Path wasmFile) {
         try {
-            return hash(Files.readAllBytes(wasmFile));
+            var key = wasmFile.toAbsolutePath().normalize();
+            var attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+
+            FileHash cached;
+            synchronized (HASH_CACHE) {
+                cached = HASH_CACHE.get(key);
+            }
+            if (cached != null && cached.size == size && cached.modified == modified) {
+                return cached.hash;
+            }
+
+            // hashed outside the lock, concurrent resolutions of the same file may both read it
+            var hash = Hashing.sha256HexDigest(key);
+            synchronized (HASH_CACHE) {
+                HASH_CACHE.put(key, new FileHash(size, modified, hash));
+            }
+            return hash;
         } catch (IOException ioe) {
             throw new ExtismException("Could not compute hash from path: " + wasmFile, ioe);
         }
@@ -43,4 +119,19 @@ public class WasmSourceResolver {
     protected String hash(byte[] bytes) {
         return Hashing.sha256HexDigest(bytes);
     }
+
+    private static final class FileHash {
+
+        private final long size;
+
+        private final long modified;
+
+        private final String hash;
+
+        private FileHash(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package org.extism.sdk;
+
+/**
+ * Selects the {@link ExtismBackend}.
+ * <p>
+ * This is the Java 22 version, which uses the {@code java.lang.foreign} backend when {@code -Dextism.backend=ffm} is set.
+ * Native access should then be enabled with {@code --enable-native-access=ALL-UNNAMED}.
+ */
+final class ExtismBackends {
+
+    /**
+     * System property selecting the backend, {@code jna} or {@code ffm}
+     */
+    static final String BACKEND_PROPERTY = "extism.backend";
+
+    private ExtismBackends() {
+    }
+
+    static ExtismBackend load() {
+        var backend = System.getProperty(BACKEND_PROPERTY, "jna");
+        switch (backend) {
+            case "jna":
+                return new JnaBackend();
+            case "ffm":
+                return new FfmBackend();
+            default:
+                throw new ExtismException("Unknown Extism backend '" + backend + "'");
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package org.extism.sdk;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BOOLEAN;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * {@link ExtismBackend} using downcall handles and upcall stubs from {@code java.lang.foreign}.
+ * <p>
+ * The library is resolved with {@link NativeLibrary}, so it is found in the same places as with the JNA backend.
+ */
+final class FfmBackend implements ExtismBackend {
+
+    private static final Linker LINKER = Linker.nativeLinker();
+
+    /**
+     * For short functions which neither block nor call back into Java
+     */
+    private static final Linker.Option CRITICAL = Linker.Option.critical(false);
+
+    private static final FunctionDescriptor HOST_FUNCTION_DESCRIPTOR =
+            FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS);
+
+    private static final MethodHandle HOST_FUNCTION_TARGET;
+
+    static {
+        try {
+            HOST_FUNCTION_TARGET = MethodHandles.lookup().findStatic(FfmBackend.class, "invokeHostFunction",
+                    MethodType.methodType(void.class, HostFunction.Callback.class,
+                            MemorySegment.class, MemorySegment.class, long.class, MemorySegment.class, long.class, MemorySegment.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle pluginCall;
+    private final MethodHandle pluginOutputLength;
+    private final MethodHandle pluginOutputData;
+    private final MethodHandle pluginError;
+    private final MethodHandle pluginReset;
+    private final MethodHandle pluginFunctionExists;
+    private final MethodHandle pluginConfig;
+    private final MethodHandle pluginCancelHandle;
+    private final MethodHandle pluginCancel;
+    private final MethodHandle currentPluginMemory;
+    private final MethodHandle currentPluginMemoryAlloc;
+    private final MethodHandle currentPluginMemoryLength;
+    private final MethodHandle currentPluginMemoryFree;
+    private final MethodHandle functionNew;
+
+    FfmBackend() {
+        var library = NativeLibrary.getInstance("extism");
+
+        pluginCall = downcall(library, "extism_plugin_call",
+                FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS, JAVA_LONG));
+        pluginOutputLength = downcall(library, "extism_plugin_output_length",
+                FunctionDescriptor.of(JAVA_LONG, ADDRESS), CRITICAL);
+        pluginOutputData = downcall(library, "extism_plugin_output_data",
+                FunctionDescriptor.of(ADDRESS, ADDRESS), CRITICAL);
+        pluginError = downcall(library, "extism_plugin_error",
+                FunctionDescriptor.of(ADDRESS, ADDRESS), CRITICAL);
+        pluginReset = downcall(library, "extism_plugin_reset",
+                FunctionDescriptor.of(JAVA_BOOLEAN, ADDRESS));
+        pluginFunctionExists = downcall(library, "extism_plugin_function_exists",
+                FunctionDescriptor.of(JAVA_BOOLEAN, ADDRESS, ADDRESS));
+        pluginConfig = downcall(library, "extism_plugin_config",
+                FunctionDescriptor.of(JAVA_BOOLEAN, ADDRESS, ADDRESS, JAVA_LONG));
+        pluginCancelHandle = downcall(library, "extism_plugin_cancel_handle",
+                FunctionDescriptor.of(ADDRESS, ADDRESS), CRITICAL);
+        pluginCancel = downcall(library, "extism_plugin_cancel",
+                FunctionDescriptor.of(JAVA_BOOLEAN, ADDRESS));
+        currentPluginMemory = downcall(library, "extism_current_plugin_memory",
+                FunctionDescriptor.of(ADDRESS, ADDRESS), CRITICAL);
+        currentPluginMemoryAlloc = downcall(library, "extism_current_plugin_memory_alloc",
+                FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_LONG));
+        currentPluginMemoryLength = downcall(library, "extism_current_plugin_memory_length",
+                FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_LONG), CRITICAL);
+        currentPluginMemoryFree = downcall(library, "extism_current_plugin_memory_free",
+                FunctionDescriptor.ofVoid(ADDRESS, JAVA_LONG));
+        functionNew = downcall(library, "extism_function_new",
+                FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS, ADDRESS, ADDRESS));
+    }
+
+    private static MethodHandle downcall(NativeLibrary library, String name, FunctionDescriptor descriptor, Linker.Option... options) {
+        var symbol = MemorySegment.ofAddress(Pointer.nativeValue(library.getFunction(name)));
+        return LINKER.downcallHandle(symbol, descriptor, options);
+    }
+
+    @Override
+    public String name() {
+        return "ffm";
+    }
+
+    @Override
+    public int pluginCall(Pointer plugin, String functionName, Pointer data, long dataLength) {
+        try (var arena = Arena.ofConfined()) {
+            return (int) pluginCall.invokeExact(segment(plugin), arena.allocateFrom(functionName), segment(data), dataLength);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public int pluginCall(Pointer plugin, Pointer functionName, Pointer data, long dataLength) {
+        try {
+            return (int) pluginCall.invokeExact(segment(plugin), segment(functionName), segment(data), dataLength);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public long pluginOutputLength(Pointer plugin) {
+        try {
+            return (long) pluginOutputLength.invokeExact(segment(plugin));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Pointer pluginOutputData(Pointer plugin) {
+        try {
+            return pointer((MemorySegment) pluginOutputData.invokeExact(segment(plugin)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public String pluginError(Pointer plugin) {
+        try {
+            var error = (MemorySegment) pluginError.invokeExact(segment(plugin));
+            if (error.equals(MemorySegment.NULL)) {
+                return null;
+            }
+            return error.reinterpret(Long.MAX_VALUE).getString(0);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public boolean pluginReset(Pointer plugin) {
+        try {
+            return (boolean) pluginReset.invokeExact(segment(plugin));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public boolean pluginFunctionExists(Pointer plugin, String functionName) {
+        try (var arena = Arena.ofConfined()) {
+            return (boolean) pluginFunctionExists.invokeExact(segment(plugin), arena.allocateFrom(functionName));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public boolean pluginConfig(Pointer plugin, byte[] json) {
+        try (var arena = Arena.ofConfined()) {
+            return (boolean) pluginConfig.invokeExact(segment(plugin), arena.allocateFrom(JAVA_BYTE, json), (long) json.length);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Pointer pluginCancelHandle(Pointer plugin) {
+        try {
+            return pointer((MemorySegment) pluginCancelHandle.invokeExact(segment(plugin)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public boolean pluginCancel(Pointer cancelHandle) {
+        try {
+            return (boolean) pluginCancel.invokeExact(segment(cancelHandle));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Pointer currentPluginMemory(Pointer currentPlugin) {
+        try {
+            return pointer((MemorySegment) currentPluginMemory.invokeExact(segment(currentPlugin)));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public long currentPluginMemoryAlloc(Pointer currentPlugin, long n) {
+        try {
+            return (long) currentPluginMemoryAlloc.invokeExact(segment(currentPlugin), n);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public long currentPluginMemoryLength(Pointer currentPlugin, long offset) {
+        try {
+            return (long) currentPluginMemoryLength.invokeExact(segment(currentPlugin), offset);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public void currentPluginMemoryFree(Pointer currentPlugin, long offset) {
+        try {
+            currentPluginMemoryFree.invokeExact(segment(currentPlugin), offset);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Pointer functionNew(String name, int[] inputs, int[] outputs, HostFunction.Callback<?> callback, Pointer userData) {
+        // the stub lives as long as the callback, which is kept reachable by its HostFunction,
+        // and is shared by the native functions created for the callback by a HostFunctionLibrary
+        MemorySegment stub;
+        synchronized (callback) {
+            stub = (MemorySegment) callback.nativeStub;
+            if (stub == null) {
+                var target = MethodHandles.insertArguments(HOST_FUNCTION_TARGET, 0, callback);
+                stub = LINKER.upcallStub(target, HOST_FUNCTION_DESCRIPTOR, Arena.ofAuto());
+                callback.nativeStub = stub;
+            }
+        }
+
+        try (var arena = Arena.ofConfined()) {
+            return pointer((MemorySegment) functionNew.invokeExact(
+                    arena.allocateFrom(name),
+                    arena.allocateFrom(JAVA_INT, inputs),
+                    (long) inputs.length,
+                    arena.allocateFrom(JAVA_INT, outputs),
+                    (long) outputs.length,
+                    stub,
+                    segment(userData),
+                    MemorySegment.NULL));
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Target of the upcall stubs, adapts the native arguments to {@link HostFunction.Callback}.
+     * Exceptions must not propagate into native code, so they are reported like JNA reports callback exceptions.
+     */
+    private static void invokeHostFunction(HostFunction.Callback<?> callback,
+                                           MemorySegment currentPlugin,
+                                           MemorySegment inputs, long nInputs,
+                                           MemorySegment outputs, long nOutputs,
+                                           MemorySegment data) {
+        try {
+            callback.invoke(pointer(currentPlugin), pointer(inputs), nInputs, pointer(outputs), nOutputs, pointer(data));
+        } catch (Throwable t) {
+            Native.getCallbackExceptionHandler().uncaughtException(callback, t);
+        }
+    }
+
+    private static MemorySegment segment(Pointer pointer) {
+        return pointer == null ? MemorySegment.NULL : MemorySegment.ofAddress(Pointer.nativeValue(pointer));
+    }
+
+    private static Pointer pointer(MemorySegment segment) {
+        return segment.equals(MemorySegment.NULL) ? null : new Pointer(segment.address());
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new ExtismException("Native call failed", t);
+    }
+}
@@ -0,0 +1,57 @@
+package org.extism.sdk;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CodecTests {
+
+    @Test
+    public void shouldRoundTripUtf8Strings() {
+        var codec = Codec.utf8();
+        var value = "Hello, Wörld 😀";
+        var buffer = ByteBuffer.allocateDirect(64);
+
+        codec.encode(value, buffer);
+        assertThat(buffer.position()).isEqualTo(value.getBytes(StandardCharsets.UTF_8).length);
+
+        buffer.flip();
+        assertThat(codec.decode(buffer.asReadOnlyBuffer())).isEqualTo(value);
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    public void shouldOverflowSmallBuffers() {
+        assertThrows(BufferOverflowException.class, () -> Codec.utf8().encode("Hello, World", ByteBuffer.allocate(4)));
+        var codec = Codec.json(Map.class, Map.class);
+        assertThrows(BufferOverflowException.class, () -> codec.encode(Map.of("key", "value"), ByteBuffer.allocate(4)));
+    }
+
+    @Test
+    public void shouldStreamJson() {
+        var codec = Codec.<List<String>, List<String>>json(JsonCodec.DEFAULT_GSON,
+                new TypeToken<List<String>>() {}.getType(), new TypeToken<List<String>>() {}.getType());
+        // long enough to split surrogate pairs across the writer's character buffer
+        var value = List.of("<a>".repeat(1000), "😀".repeat(3000));
+        var buffer = ByteBuffer.allocate(64 * 1024);
+
+        codec.encode(value, buffer);
+        buffer.flip();
+        assertThat(new String(buffer.array(), 0, 6, StandardCharsets.UTF_8)).isEqualTo("[\"<a><");
+        assertThat(codec.decode(buffer)).isEqualTo(value);
+    }
+
+    @Test
+    public void shouldDecodeEmptyOutput() {
+        assertThat(Codec.utf8().decode(ByteBuffer.allocate(0))).isEmpty();
+        assertThat(Codec.json(Map.class, Map.class).decode(ByteBuffer.allocate(0))).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompilationCacheTests {
+
+    @AfterEach
+    public void tearDown() {
+        CompilationCache.reset();
+    }
+
+    @Test
+    public void shouldRenderCacheConfiguration() {
+        var toml = CompilationCache.toml(Path.of("/var/cache/extism"), 1024 * 1024);
+
+        assertThat(toml).isEqualTo("[cache]\n"
+                + "enabled = true\n"
+                + "directory = \"/var/cache/extism\"\n"
+                + "files-total-size-soft-limit = \"1048576\"\n");
+        assertThat(CompilationCache.toml(Path.of("/tmp"), 0)).doesNotContain("files-total-size-soft-limit");
+    }
+
+    @Test
+    public void shouldCountCompiledModulesOnly() throws IOException {
+        var dir = Files.createTempDirectory("extism-cache");
+        var modules = Files.createDirectories(dir.resolve("modules").resolve("compiler"));
+        Files.write(modules.resolve("mod-1"), new byte[]{1});
+        Files.write(modules.resolve("mod-1.stats"), new byte[]{1});
+        Files.write(modules.resolve("mod-2"), new byte[]{1});
+
+        assertThat(CompilationCache.countEntries(dir)).isEqualTo(2);
+        assertThat(CompilationCache.countEntries(dir.resolve("missing"))).isZero();
+    }
+
+    @Test
+    public void shouldPrecompileIntoCacheAndCountHitsAndMisses() throws IOException {
+        var dir = Files.createTempDirectory("extism-cache");
+        // plugins created by other tests in this JVM would prevent the configuration
+        CompilationCache.reset();
+        Extism.configureCompilationCache(dir);
+        assertThat(dir.resolve(CompilationCache.CONFIG_FILE)).isRegularFile();
+
+        var manifest = new Manifest(CODE.pathWasmSource());
+        Extism.precompile(manifest);
+        var modules = dir.resolve(CompilationCache.MODULES_DIRECTORY);
+        long entries = CompilationCache.countEntries(modules);
+        assertThat(entries).isPositive();
+
+        Extism.precompile(manifest);
+        try (var plugin = new Plugin(manifest, false, null)) {
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"count\":3");
+        }
+        // the plugin was loaded from the cache
+        assertThat(CompilationCache.countEntries(modules)).isEqualTo(entries);
+
+        var stats = Extism.compilationCacheStats();
+        assertThat(stats.directory()).isEqualTo(dir.toAbsolutePath().normalize());
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectConfigurationAfterFirstPlugin() throws IOException {
+        var dir = Files.createTempDirectory("extism-cache");
+        CompilationCache.reset();
+        CompilationCache.pluginCreated();
+
+        var e = assertThrows(ExtismException.class, () -> CompilationCache.configure(dir, 0));
+        assertThat(e.getMessage()).contains("before the first plugin");
+        assertThrows(ExtismException.class, CompilationCache::disable);
+        assertThat(dir.resolve(CompilationCache.CONFIG_FILE)).doesNotExist();
+    }
+}
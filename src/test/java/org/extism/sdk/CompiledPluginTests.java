@@ -0,0 +1,86 @@
+package org.extism.sdk;
+
+import com.sun.jna.Pointer;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompiledPluginTests {
+
+    @Test
+    public void shouldInstantiateMultiplePluginsFromCompiledPlugin() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var compiled = new CompiledPlugin(manifest, false, null)) {
+            try (var first = compiled.instantiate(); var second = compiled.instantiate()) {
+                assertThat(first.call("count_vowels", "Hello World")).contains("\"total\":3");
+                assertThat(first.call("count_vowels", "Hello World")).contains("\"total\":6");
+
+                // instances do not share state
+                assertThat(second.call("count_vowels", "Hello World")).contains("\"total\":3");
+            }
+        }
+    }
+
+    @Test
+    public void shouldInstantiateWithoutRecompilingTheModule() throws IOException {
+        var wasmFile = Files.createTempFile("extism-compiled", ".wasm");
+        Files.copy(CODE.getWasmFilePath(), wasmFile, StandardCopyOption.REPLACE_EXISTING);
+        var manifest = new Manifest(new WasmSourceResolver().resolve(wasmFile));
+
+        try (var compiled = new CompiledPlugin(manifest, false, null)) {
+            // the module can no longer be loaded from its source, so instances must come from the compiled code
+            Files.delete(wasmFile);
+            assertThrows(ExtismException.class, () -> new Plugin(manifest, false, null));
+
+            try (var plugin = compiled.instantiate()) {
+                assertThat(plugin.call("count_vowels", "Hello World")).contains("\"count\":3");
+            }
+        } finally {
+            Files.deleteIfExists(wasmFile);
+        }
+    }
+
+    @Test
+    public void shouldShareHostFunctionsAcrossInstances() {
+        ExtismFunction helloWorldFunction = (plugin, params, returns, data) -> {
+            int offs = plugin.alloc(4);
+            Pointer mem = plugin.memory();
+            mem.write(offs, "test".getBytes(), 0, 4);
+            returns[0].v.i64 = offs;
+        };
+
+        HostFunction helloWorld = new HostFunction<>(
+                "hello_world",
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                helloWorldFunction,
+                Optional.empty()
+        );
+
+        var manifest = new Manifest(List.of(CODE.pathWasmFunctionsSource()));
+
+        try (var compiled = new CompiledPlugin(manifest, true, new HostFunction[]{helloWorld})) {
+            for (int i = 0; i < 3; i++) {
+                try (var plugin = compiled.instantiate()) {
+                    assertThat(plugin.call("count_vowels", "this is a test")).isEqualTo("test");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldFailToCompileInvalidModule() {
+        assertThrows(ExtismException.class, () -> new CompiledPlugin(new byte[]{0, 1, 2, 3}, false, null));
+    }
+}
@@ -0,0 +1,119 @@
+package org.extism.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeadlineTimerTests {
+
+    private final DeadlineTimer timer = new DeadlineTimer(TimeUnit.MILLISECONDS.toNanos(1), 64);
+
+    @Test
+    public void shouldCancelCallOnDeadline() throws InterruptedException {
+        var cancelled = new CountDownLatch(1);
+        var deadline = timer.schedule(countingHandle(cancelled), TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.EXPIRED);
+    }
+
+    @Test
+    public void shouldCancelCallWithDeadlineBeyondOneWheelRevolution() throws InterruptedException {
+        var cancelled = new CountDownLatch(1);
+        var deadline = timer.schedule(countingHandle(cancelled), TimeUnit.MILLISECONDS.toNanos(150));
+
+        assertThat(cancelled.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.EXPIRED);
+    }
+
+    @Test
+    public void shouldNotCancelCompletedCall() throws InterruptedException {
+        var cancelled = new CountDownLatch(1);
+        var deadline = timer.schedule(countingHandle(cancelled), TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.COMPLETED);
+        assertThat(cancelled.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    }
+
+    @Test
+    public void shouldNeverCancelCallWithUnreachableDeadline() throws InterruptedException {
+        var cancelled = new CountDownLatch(1);
+        var deadline = timer.schedule(countingHandle(cancelled), Long.MAX_VALUE);
+
+        assertThat(cancelled.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.COMPLETED);
+    }
+
+    @Test
+    public void shouldCancelCallWhenCallerIsInterrupted() {
+        var cancelled = new CountDownLatch(1);
+        var deadline = timer.schedule(countingHandle(cancelled), -1);
+
+        Thread.currentThread().interrupt();
+        try {
+            // spin instead of blocking, which would clear the interrupt before the timer sees it
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cancelled.getCount() > 0 && System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            assertThat(cancelled.getCount()).isZero();
+        } finally {
+            Thread.interrupted();
+        }
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.INTERRUPTED);
+    }
+
+    @Test
+    public void shouldWaitForRunningCancelOnCompletion() throws InterruptedException {
+        var cancelling = new CountDownLatch(1);
+        var cancelled = new AtomicBoolean();
+        var handle = new CancelHandle(null) {
+            @Override
+            public boolean cancel() {
+                cancelling.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                cancelled.set(true);
+                return true;
+            }
+        };
+        var deadline = timer.schedule(handle, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(cancelling.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.EXPIRED);
+        // the caller may free the plugin now, so the handle must not be in use anymore
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    public void shouldCancelCallPromptlyAfterIdlePeriod() throws InterruptedException {
+        // with a tick of a nanosecond, walking the idle ticks one by one would take seconds
+        var fineTimer = new DeadlineTimer(1, 64);
+        fineTimer.schedule(countingHandle(new CountDownLatch(1)), TimeUnit.SECONDS.toNanos(10)).complete();
+        Thread.sleep(2000);
+
+        var cancelled = new CountDownLatch(1);
+        var deadline = fineTimer.schedule(countingHandle(cancelled), TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(cancelled.await(500, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(deadline.complete()).isEqualTo(DeadlineTimer.Deadline.EXPIRED);
+    }
+
+    private static CancelHandle countingHandle(CountDownLatch latch) {
+        return new CancelHandle(null) {
+            @Override
+            public boolean cancel() {
+                latch.countDown();
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package org.extism.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExtismBackendTests {
+
+    @Test
+    public void shouldSelectBackendFromSystemProperty() {
+        var expected = System.getProperty(ExtismBackends.BACKEND_PROPERTY, "jna");
+        assertThat(ExtismBackend.INSTANCE.name()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,212 @@
+package org.extism.sdk;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExtismStreamsTests {
+
+    @Test
+    public void shouldCopyInputToOutputInChunks() throws IOException {
+        var input = new byte[18];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (byte) i;
+        }
+        var out = new ByteArrayOutputStream();
+        var plugin = new FakePlugin();
+
+        long written = ExtismStreams.withStreams(() -> {
+        }, Channels.newChannel(new ByteArrayInputStream(input)), Channels.newChannel(out), () -> {
+            // the chunk buffer is reused, then grown, then reused with a smaller limit
+            for (long max : new long[]{4, 4, 8, 2}) {
+                long block = read(plugin, max);
+                assertThat(plugin.memoryLength(block)).isEqualTo(max);
+                write(plugin, block);
+            }
+            assertThat(read(plugin, 4)).isZero();
+            assertThat(read(plugin, 4)).isZero();
+        });
+
+        assertThat(written).isEqualTo(input.length);
+        assertThat(out.toByteArray()).isEqualTo(input);
+    }
+
+    @Test
+    public void shouldIgnoreEmptyBlock() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var plugin = new FakePlugin();
+
+        long written = ExtismStreams.withStreams(() -> {
+        }, Channels.newChannel(new ByteArrayInputStream(new byte[0])), Channels.newChannel(out), () -> {
+            assertThat(read(plugin, 4)).isZero();
+            // the fake plugin rejects offsets which are not blocks
+            write(plugin, 0);
+        });
+
+        assertThat(written).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    public void shouldCancelCallAndRethrowReadFailure() {
+        var cancelled = new AtomicBoolean();
+        var plugin = new FakePlugin();
+        ReadableByteChannel in = new FailingChannel();
+
+        var e = assertThrows(IOException.class, () -> ExtismStreams.withStreams(() -> cancelled.set(true),
+                in, Channels.newChannel(new ByteArrayOutputStream()), () -> {
+                    assertThat(read(plugin, 4)).isZero();
+                    assertThat(cancelled).isTrue();
+                    // the runtime fails the cancelled call
+                    throw new ExtismException("cancelled");
+                }));
+
+        assertThat(e).hasMessage("broken channel");
+        assertThat(e.getSuppressed()).singleElement().isInstanceOf(ExtismException.class);
+    }
+
+    @Test
+    public void shouldCancelCallAndRethrowWriteFailure() {
+        var cancelled = new AtomicBoolean();
+        var plugin = new FakePlugin();
+        WritableByteChannel out = new FailingChannel();
+
+        var e = assertThrows(IOException.class, () -> ExtismStreams.withStreams(() -> cancelled.set(true),
+                Channels.newChannel(new ByteArrayInputStream(new byte[8])), out, () -> {
+                    long block = read(plugin, 8);
+                    write(plugin, block);
+                    assertThat(cancelled).isTrue();
+                    // further writes are ignored, the guest may complete before noticing the cancellation
+                    write(plugin, block);
+                }));
+
+        assertThat(e).hasMessage("broken channel");
+    }
+
+    @Test
+    public void shouldFailCallOnChannelMakingNoProgress() {
+        var cancelled = new AtomicBoolean();
+        var plugin = new FakePlugin();
+        ReadableByteChannel in = new FailingChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                return 0;
+            }
+        };
+
+        var e = assertThrows(IOException.class, () -> ExtismStreams.withStreams(() -> cancelled.set(true),
+                in, Channels.newChannel(new ByteArrayOutputStream()), () -> assertThat(read(plugin, 4)).isZero()));
+
+        assertThat(e.getMessage()).contains("must be blocking");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    public void shouldRejectNonBlockingChannels() throws IOException {
+        var pipe = Pipe.open();
+        try (var source = pipe.source(); var sink = pipe.sink()) {
+            source.configureBlocking(false);
+
+            assertThrows(IllegalArgumentException.class, () -> ExtismStreams.withStreams(() -> {
+            }, source, Channels.newChannel(new ByteArrayOutputStream()), () -> {
+            }));
+        }
+    }
+
+    @Test
+    public void shouldRejectUseOutsideStreamingCall() {
+        assertThrows(ExtismException.class, () -> read(new FakePlugin(), 4));
+    }
+
+    private static long read(ExtismCurrentPlugin plugin, long max) {
+        var returns = values(0);
+        ExtismStreams.read(plugin, values(max), returns);
+        return returns.getI64(0);
+    }
+
+    private static void write(ExtismCurrentPlugin plugin, long block) {
+        ExtismStreams.write(plugin, values(block), values(0));
+    }
+
+    private static ExtismValues values(long value) {
+        var values = new ExtismValues();
+        values.reset(new Memory(ExtismValues.VAL_SIZE), 1);
+        values.setI64(0, value);
+        return values;
+    }
+
+    /**
+     * Plugin memory with a bump allocator, offset 0 is never a block
+     */
+    private static final class FakePlugin extends ExtismCurrentPlugin {
+
+        private final Memory memory = new Memory(1024);
+
+        private final Map<Long, Long> blocks = new HashMap<>();
+
+        private long next = 8;
+
+        private FakePlugin() {
+            super(null);
+        }
+
+        @Override
+        public Pointer memory() {
+            return memory;
+        }
+
+        @Override
+        public int alloc(int n) {
+            long offset = next;
+            next += n;
+            blocks.put(offset, (long) n);
+            return (int) offset;
+        }
+
+        @Override
+        public long memoryLength(long offset) {
+            var length = blocks.get(offset);
+            if (length == null) {
+                throw new ExtismException("Not a memory block: " + offset);
+            }
+            return length;
+        }
+    }
+
+    private static class FailingChannel implements ReadableByteChannel, WritableByteChannel {
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            throw new IOException("broken channel");
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            throw new IOException("broken channel");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.extism.sdk;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.extism.sdk.manifest.Manifest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+
+public class FlightRecorderTests {
+
+    @Test
+    public void shouldRecordCallsAboveThreshold() throws IOException {
+        try (var recording = new Recording()) {
+            recording.enable("org.extism.sdk.Call").withThreshold(Duration.ofMillis(10));
+            recording.start();
+
+            var fast = new ExtismEvents.Call();
+            fast.begin();
+            fast.end();
+            if (fast.shouldCommit()) {
+                fast.commit();
+            }
+
+            var slow = new ExtismEvents.Call();
+            slow.begin();
+            sleep(20);
+            slow.end();
+            if (slow.shouldCommit()) {
+                slow.functionName = "slow";
+                slow.commit();
+            }
+
+            recording.stop();
+            var events = events(recording, "org.extism.sdk.Call");
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("functionName")).isEqualTo("slow");
+        }
+    }
+
+    @Test
+    public void shouldOnlyReportEventsEnabledByRecording() {
+        assertThat(ExtismEvents.Call.enabled()).isFalse();
+        assertThat(ExtismEvents.HostFunctionCall.enabled()).isFalse();
+
+        try (var recording = new Recording()) {
+            recording.enable("org.extism.sdk.Call");
+            // events are enabled by default in a recording
+            recording.disable("org.extism.sdk.HostFunctionCall");
+            recording.start();
+
+            assertThat(ExtismEvents.Call.enabled()).isTrue();
+            assertThat(ExtismEvents.HostFunctionCall.enabled()).isFalse();
+        }
+        assertThat(ExtismEvents.Call.enabled()).isFalse();
+    }
+
+    @Test
+    public void shouldRecordPluginLifecycleAndCalls() throws IOException {
+        try (var recording = new Recording()) {
+            recording.enable("org.extism.sdk.Instantiate");
+            recording.enable("org.extism.sdk.Call").withThreshold(Duration.ZERO);
+            recording.start();
+
+            var source = CODE.pathWasmSource();
+            try (var plugin = new Plugin(new Manifest(source), false, null)) {
+                plugin.call("count_vowels", "Hello World");
+            }
+
+            recording.stop();
+            var instantiated = events(recording, "org.extism.sdk.Instantiate");
+            assertThat(instantiated).hasSize(1);
+            assertThat(instantiated.get(0).getString("moduleHashes")).isEqualTo(source.hash());
+
+            var calls = events(recording, "org.extism.sdk.Call");
+            assertThat(calls).hasSize(1);
+            assertThat(calls.get(0).getString("functionName")).isEqualTo("count_vowels");
+            assertThat(calls.get(0).getLong("inputSize")).isEqualTo(11);
+            assertThat(calls.get(0).getBoolean("success")).isTrue();
+        }
+    }
+
+    private static List<RecordedEvent> events(Recording recording, String name) throws IOException {
+        var file = Files.createTempFile("extism", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(name))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package org.extism.sdk;
 
+import com.sun.jna.Memory;
 import com.sun.jna.Pointer;
+import org.extism.sdk.manifest.Manifest;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class HostFunctionTests {
@@ -22,4 +32,120 @@ public class HostFunctionTests {
         assertThrows(ExtismException.class, () ->
                 callback.invoke(Pointer.NULL, null, 0, null, 1, Pointer.NULL));
     }
+
+    @Test
+    public void rawCallbackShouldReadAndWriteValuesInPlace() {
+        var params = values(LibExtism.ExtismValType.I64, LibExtism.ExtismValType.F32);
+        params.setLong(ExtismValues.VALUE_OFFSET, 42L);
+        params.setFloat(ExtismValues.VAL_SIZE + ExtismValues.VALUE_OFFSET, 1.5f);
+        var returns = values(LibExtism.ExtismValType.F64);
+
+        var callback = new HostFunction.Callback<>((ExtismRawFunction) (plugin, in, out) -> {
+            assertThat(in.length()).isEqualTo(2);
+            assertThat(in.type(0)).isEqualTo(LibExtism.ExtismValType.I64);
+            assertThat(in.type(1)).isEqualTo(LibExtism.ExtismValType.F32);
+            out.setF64(0, in.getI64(0) + in.getF32(1));
+        });
+        callback.invoke(Pointer.NULL, params, 2, returns, 1, Pointer.NULL);
+
+        assertThat(returns.getDouble(ExtismValues.VALUE_OFFSET)).isEqualTo(43.5);
+    }
+
+    @Test
+    public void rawCallbackShouldReuseCurrentPluginPerThread() {
+        var seen = new ArrayList<ExtismCurrentPlugin>();
+        var callback = new HostFunction.Callback<>((ExtismRawFunction) (plugin, in, out) -> seen.add(plugin));
+
+        callback.invoke(Pointer.NULL, null, 0, null, 0, Pointer.NULL);
+        callback.invoke(Pointer.NULL, null, 0, null, 0, Pointer.NULL);
+
+        assertThat(seen).hasSize(2);
+        assertThat(seen.get(0)).isSameAs(seen.get(1));
+    }
+
+    @Test
+    public void rawValuesShouldCheckBounds() {
+        var callback = new HostFunction.Callback<>((ExtismRawFunction) (plugin, in, out) -> in.getI32(1));
+        assertThrows(IndexOutOfBoundsException.class, () ->
+                callback.invoke(Pointer.NULL, values(LibExtism.ExtismValType.I32), 1, null, 0, Pointer.NULL));
+    }
+
+    @Test
+    public void callbackShouldWriteAllOutputsOfExtismFunction() {
+        var params = values(LibExtism.ExtismValType.I32);
+        params.setInt(ExtismValues.VALUE_OFFSET, 7);
+        var returns = values(LibExtism.ExtismValType.I32, LibExtism.ExtismValType.I64);
+
+        var callback = new HostFunction.Callback<>(
+                (plugin, in, out, userData) -> {
+                    out[0].v.i32 = in[0].v.i32 * 2;
+                    out[1].v.i64 = in[0].v.i32 * 3L;
+                }, null);
+        callback.invoke(Pointer.NULL, params, 1, returns, 2, Pointer.NULL);
+
+        assertThat(returns.getInt(ExtismValues.VALUE_OFFSET)).isEqualTo(14);
+        assertThat(returns.getLong(ExtismValues.VAL_SIZE + ExtismValues.VALUE_OFFSET)).isEqualTo(21L);
+    }
+
+    @Test
+    public void shouldViewMemoryAsLittleEndianIntsAndFloats() {
+        var memory = new Memory(16);
+        memory.clear();
+        var plugin = new ExtismCurrentPlugin(null) {
+            @Override
+            public Pointer memory() {
+                return memory;
+            }
+
+            @Override
+            public long memoryLength(long offset) {
+                return 16 - offset;
+            }
+        };
+
+        var ints = plugin.intView(0);
+        assertThat(ints.capacity()).isEqualTo(4);
+        ints.put(1, 0x01020304);
+        assertThat(memory.getByte(4)).isEqualTo((byte) 0x04);
+
+        var floats = plugin.floatView(8);
+        assertThat(floats.capacity()).isEqualTo(2);
+        floats.put(0, 1.5f);
+        assertThat(plugin.byteView(8).order(ByteOrder.LITTLE_ENDIAN).getFloat(0)).isEqualTo(1.5f);
+        assertThat(plugin.intView(0).get(1)).isEqualTo(0x01020304);
+    }
+
+    @Test
+    public void shouldWriteSeveralBuffersInSingleBlock() {
+        var interior = new StringBuilder();
+        var blockLength = new AtomicLong();
+
+        ExtismRawFunction helloWorld = (plugin, params, returns) -> {
+            long[] offsets = plugin.writeBytes("te".getBytes(StandardCharsets.UTF_8), "st".getBytes(StandardCharsets.UTF_8));
+            blockLength.set(plugin.memoryLength(offsets[0]));
+            interior.append(StandardCharsets.UTF_8.decode(plugin.byteView(offsets[1], 2)));
+            assertThat(offsets[1]).isEqualTo(offsets[0] + 2);
+            returns.setI64(0, offsets[0]);
+        };
+
+        var types = new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64};
+        var function = new HostFunction<>("hello_world", types, types, helloWorld);
+        var manifest = new Manifest(Arrays.asList(CODE.pathWasmFunctionsSource()));
+
+        try (var plugin = new Plugin(manifest, true, new HostFunction[]{function})) {
+            // the guest reads the whole block returned through the first offset
+            assertThat(plugin.call("count_vowels", "this is a test")).isEqualTo("test");
+        }
+        assertThat(blockLength).hasValue(4);
+        assertThat(interior.toString()).isEqualTo("st");
+    }
+
+    private static Memory values(LibExtism.ExtismValType... types) {
+        var memory = new Memory(types.length * ExtismValues.VAL_SIZE);
+        memory.clear();
+        for (int i = 0; i < types.length; i++) {
+            memory.setInt(i * ExtismValues.VAL_SIZE, types[i].v);
+        }
+        return memory;
+    }
 }
@@ -3,8 +3,13 @@ package org.extism.sdk;
 import org.extism.sdk.manifest.Manifest;
 import org.extism.sdk.manifest.MemoryOptions;
 import org.extism.sdk.support.JsonSerde;
+import org.extism.sdk.wasm.WasmSource;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.HashMap;
 
@@ -42,6 +47,89 @@ public class ManifestTests {
         assertJson(json).at("/memory/max_http_response_bytes").isEqualTo(1024 * 1024 * 10);
     }
 
+    @Test
+    public void shouldSerializeManifestWithTimeoutToJson() {
+        var manifest = new Manifest(List.of(CODE.pathWasmSource()), null, null, null, null, 250L);
+        var json = JsonSerde.toJson(manifest);
+
+        assertJson(json).at("/timeout_ms").isEqualTo(250);
+        assertJson(JsonSerde.toJson(new Manifest(CODE.pathWasmSource()))).at("/timeout_ms").isMissing();
+    }
+
+    @Test
+    public void shouldSerializeManifestCompactly() {
+        var config = new HashMap<String, String>();
+        config.put("greeting", "h\u00e9llo \"w\u00f6rld\"\n\ud83d\ude00");
+        var source = CODE.byteArrayWasmSource();
+        var manifest = new Manifest(List.of(source), null, config, List.of("example.com"));
+        var json = new String(manifest.toJsonBytes(), StandardCharsets.UTF_8);
+
+        assertThat(json).doesNotContain("\n").startsWith("{\"wasm\":[{");
+        assertJson(json).at("/wasm/0/data").isText(Base64.getEncoder().encodeToString(source.data()));
+        assertJson(json).at("/wasm/0/hash").isText(source.hash());
+        assertJson(json).at("/config/greeting").isText(config.get("greeting"));
+        assertJson(json).at("/allowed_hosts/0").isText("example.com");
+        assertJson(json).at("/memory").isMissing();
+    }
+
+    @Test
+    public void shouldSkipNullMapValues() {
+        var config = new HashMap<String, String>();
+        config.put("present", "value");
+        config.put("missing", null);
+        var paths = new HashMap<String, String>();
+        paths.put("/tmp", null);
+        var manifest = new Manifest(List.of(CODE.pathWasmSource()), null, config, null, paths);
+        var json = new String(manifest.toJsonBytes(), StandardCharsets.UTF_8);
+
+        assertJson(json).at("/config/present").isText("value");
+        assertJson(json).at("/config/missing").isMissing();
+        assertThat(json).contains("\"allowed_paths\":{}");
+    }
+
+    @Test
+    public void shouldReuseSerializedManifestUntilItChanges() {
+        var manifest = new Manifest(new ArrayList<>(List.of(CODE.pathWasmSource())));
+
+        var first = manifest.toJsonBytes();
+        assertThat(manifest.toJsonBytes()).isEqualTo(first);
+
+        manifest.addSource(CODE.pathWasmFunctionsSource());
+        var second = manifest.toJsonBytes();
+        assertThat(second).isNotEqualTo(first);
+        assertJson(new String(second, StandardCharsets.UTF_8)).at("/wasm").hasSize(2);
+    }
+
+    @Test
+    public void shouldNotBeAffectedByChangesToConstructorArguments() {
+        var sources = new ArrayList<WasmSource>(List.of(CODE.pathWasmSource()));
+        var config = new HashMap<String, String>();
+        config.put("key", "before");
+        var hosts = new ArrayList<>(List.of("example.com"));
+        var manifest = new Manifest(sources, null, config, hosts);
+        var before = manifest.toJsonBytes();
+
+        sources.add(CODE.pathWasmFunctionsSource());
+        config.put("key", "after");
+        hosts.add("example.org");
+
+        assertThat(manifest.toJsonBytes()).isEqualTo(before);
+        assertThat(manifest.getSources()).hasSize(1);
+        assertThat(manifest.getConfig()).containsEntry("key", "before");
+        assertThat(manifest.getAllowedHosts()).containsExactly("example.com");
+    }
+
+    @Test
+    public void shouldReturnCopyOfSerializedManifest() {
+        var manifest = new Manifest(List.of(CODE.pathWasmSource()));
+
+        var first = manifest.toJsonBytes();
+        Arrays.fill(first, (byte) 0);
+
+        assertThat(manifest.toJsonBytes()).isNotSameAs(manifest.toJsonBytes());
+        assertThat(manifest.toJsonBytes()[0]).isEqualTo((byte) '{');
+    }
+
     @Test
     public void codeWasmFromFileAndBytesShouldProduceTheSameHash() {
 
@@ -0,0 +1,100 @@
+package org.extism.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NativeResourceTests {
+
+    @Test
+    public void shouldReleaseOnceWhenFreedConcurrently() throws InterruptedException {
+        var releases = new AtomicInteger();
+        var owner = new Object();
+        var resource = new NativeResource(owner, NativeResource.Kind.PLUGIN, 0, releases::incrementAndGet);
+
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                resource.free();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        assertThat(releases).hasValue(1);
+        assertThat(resource.isFreed()).isTrue();
+    }
+
+    @Test
+    public void shouldTrackLiveResourcesAndEstimatedMemory() {
+        var before = Extism.nativeResourceStats();
+        var owner = new Object();
+        var resource = new NativeResource(owner, NativeResource.Kind.COMPILED_PLUGIN, 1024, () -> {});
+        resource.adjust(512);
+
+        var live = Extism.nativeResourceStats();
+        assertThat(live.liveCompiledPlugins()).isEqualTo(before.liveCompiledPlugins() + 1);
+        assertThat(live.estimatedNativeBytes()).isEqualTo(before.estimatedNativeBytes() + 1536);
+
+        resource.free();
+        resource.adjust(512);
+        var freed = Extism.nativeResourceStats();
+        assertThat(freed.liveCompiledPlugins()).isEqualTo(before.liveCompiledPlugins());
+        assertThat(freed.estimatedNativeBytes()).isEqualTo(before.estimatedNativeBytes());
+    }
+
+    @Test
+    public void shouldReportLeakWithAllocationSite() throws InterruptedException {
+        var leaked = new CountDownLatch(1);
+        var site = new AtomicReference<Throwable>();
+        PluginListener listener = new PluginListener() {
+            @Override
+            public void resourceLeaked(String resource, Throwable allocationSite) {
+                if (resource.equals("HOST_FUNCTION")) {
+                    site.set(allocationSite);
+                    leaked.countDown();
+                }
+            }
+        };
+
+        var releases = new AtomicInteger();
+        long leaksBefore = Extism.nativeResourceStats().leaked();
+        Extism.addPluginListener(listener);
+        Extism.setLeakDetection(true);
+        try {
+            allocateAndForget(releases);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!leaked.await(10, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+                System.gc();
+            }
+        } finally {
+            Extism.setLeakDetection(false);
+            Extism.removePluginListener(listener);
+        }
+
+        assertThat(releases).hasValue(1);
+        assertThat(site.get()).isNotNull();
+        assertThat(site.get().getStackTrace()[1].getMethodName()).isEqualTo("allocateAndForget");
+        assertThat(Extism.nativeResourceStats().leaked()).isGreaterThan(leaksBefore);
+    }
+
+    private static void allocateAndForget(AtomicInteger releases) {
+        new NativeResource(new Object(), NativeResource.Kind.HOST_FUNCTION, 0, releases::incrementAndGet);
+    }
+}
@@ -0,0 +1,93 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PluginListenerTests {
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @AfterEach
+    public void tearDown() {
+        Extism.removePluginListener(listener);
+    }
+
+    @Test
+    public void shouldRegisterAndRemoveListeners() {
+        Extism.addPluginListener(listener);
+        assertThat(PluginListeners.get()).contains(listener);
+
+        assertThat(Extism.removePluginListener(listener)).isTrue();
+        assertThat(Extism.removePluginListener(listener)).isFalse();
+        assertThat(PluginListeners.get()).doesNotContain(listener);
+    }
+
+    @Test
+    public void shouldReportCreationAndCalls() {
+        Extism.addPluginListener(listener);
+        var input = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+        try (var plugin = new Plugin(new Manifest(CODE.pathWasmSource()), false, null)) {
+            var output = plugin.call("count_vowels", input);
+            assertThrows(ExtismException.class, () -> plugin.call("unknown", input));
+
+            assertThat(listener.events).containsExactly(
+                    "created",
+                    "succeeded count_vowels " + input.length + " " + output.length,
+                    "failed unknown " + input.length);
+        }
+    }
+
+    @Test
+    public void shouldReportHostFunctionCalls() {
+        ExtismRawFunction helloWorldFunction = (plugin, params, returns) ->
+                plugin.returnBytes(returns, 0, "test".getBytes(StandardCharsets.UTF_8));
+
+        var helloWorld = new HostFunction<>(
+                "hello_world",
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                helloWorldFunction);
+
+        try (var plugin = new Plugin(new Manifest(List.of(CODE.pathWasmFunctionsSource())), true, new HostFunction[]{helloWorld})) {
+            Extism.addPluginListener(listener);
+            plugin.call("count_vowels", "this is a test");
+
+            assertThat(listener.events).contains("host hello_world");
+        }
+    }
+
+    private static final class RecordingListener implements PluginListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void pluginCreated(long durationNanos) {
+            events.add("created");
+        }
+
+        @Override
+        public void callSucceeded(String functionName, long inputBytes, long outputBytes, long durationNanos, long cpuNanos) {
+            events.add("succeeded " + functionName + " " + inputBytes + " " + outputBytes);
+        }
+
+        @Override
+        public void callFailed(String functionName, long inputBytes, String error, long durationNanos, long cpuNanos) {
+            events.add("failed " + functionName + " " + inputBytes);
+        }
+
+        @Override
+        public void hostFunctionCalled(String functionName, long durationNanos) {
+            events.add("host " + functionName);
+        }
+    }
+}
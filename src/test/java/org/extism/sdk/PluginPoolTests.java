@@ -0,0 +1,200 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PluginPoolTests {
+
+    @Test
+    public void shouldWarmUpMinimumNumberOfInstances() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var pool = new PluginPool(manifest, false, null, 2, 4)) {
+            assertThat(pool.size()).isEqualTo(2);
+            assertThat(pool.idleCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void shouldServeConcurrentCallers() throws Exception {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var executor = Executors.newFixedThreadPool(8);
+        try (var pool = new PluginPool(manifest, false, null, 1, 4)) {
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> pool.call("count_vowels", "Hello World")));
+            }
+            for (var future : futures) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).contains("\"count\":3");
+            }
+            assertThat(pool.size()).isBetween(1, 4);
+            assertThat(pool.borrowedCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldTimeOutWhenExhausted() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var pool = new PluginPool(manifest, false, null, 0, 1)) {
+            var plugin = pool.borrow();
+            assertThrows(ExtismException.class, () -> pool.borrow(Duration.ofMillis(50)));
+            pool.release(plugin);
+            pool.release(pool.borrow(Duration.ofMillis(50)));
+        }
+    }
+
+    @Test
+    public void shouldRecyclePluginAfterMaxCalls() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var pool = new PluginPool(manifest, false, null, 1, 1).withMaxCallsPerPlugin(2)) {
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":3");
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":6");
+            // the instance has been replaced, so its state starts over
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":3");
+        }
+    }
+
+    @Test
+    public void shouldServeWaitingCallersWhenInstancesAreRecycled() throws Exception {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var executor = Executors.newFixedThreadPool(2);
+        try (var pool = new PluginPool(manifest, false, null, 0, 1).withMaxCallsPerPlugin(1)) {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 5; j++) {
+                        // every instance is destroyed after a single call
+                        assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":3");
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(pool.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldFailWaitingBorrowersOnClose() throws Exception {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var pool = new PluginPool(manifest, false, null, 1, 1);
+            var plugin = pool.borrow();
+            Future<Plugin> waiting = executor.submit(() -> pool.borrow());
+            Thread.sleep(50);
+
+            pool.close();
+            var failure = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+            assertThat(failure.getCause()).isInstanceOf(ExtismException.class).hasMessage("Plugin pool is closed");
+            pool.release(plugin);
+            assertThat(pool.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldKeepResultWhenReplacementCannotBeCreated() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var created = new AtomicInteger();
+        Supplier<Plugin> factory = () -> {
+            if (created.incrementAndGet() > 1) {
+                throw new ExtismException("factory failure");
+            }
+            return new Plugin(manifest, false, null);
+        };
+        try (var pool = new PluginPool(factory, 1, 1).withMaxCallsPerPlugin(1)) {
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"count\":3");
+            assertThat(pool.size()).isZero();
+
+            // the next borrower gets the failure instead
+            var e = assertThrows(ExtismException.class, () -> pool.call("count_vowels", "Hello World"));
+            assertThat(e).hasMessage("factory failure");
+        }
+    }
+
+    @Test
+    public void shouldApplyRecyclePolicyOnRelease() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var policy = RecyclePolicy.none().withResetAfterCalls(2).withReplaceAfterPayloadBytes(1024);
+        try (var pool = new PluginPool(manifest, false, null, 1, 1).withRecyclePolicy(policy)) {
+            var plugin = pool.borrow();
+            pool.release(plugin);
+
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":3");
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":6");
+            // reset after two calls, the instance is kept
+            assertThat(pool.call("count_vowels", "Hello World")).contains("\"total\":3");
+            var same = pool.borrow();
+            assertThat(same).isSameAs(plugin);
+            pool.release(same);
+        }
+    }
+
+    @Test
+    public void shouldReplaceResetInstancesAfterLifetimeCalls() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var policy = RecyclePolicy.none().withResetAfterCalls(2).withReplaceAfterCalls(3);
+        try (var pool = new PluginPool(manifest, false, null, 1, 1).withRecyclePolicy(policy)) {
+            var plugin = pool.borrow();
+            pool.release(plugin);
+
+            pool.call("count_vowels", "Hello World");
+            pool.call("count_vowels", "Hello World");
+            var reset = pool.borrow();
+            assertThat(reset).isSameAs(plugin);
+            assertThat(reset.callCount()).isZero();
+            assertThat(reset.lifetimeCallCount()).isEqualTo(2);
+            pool.release(reset);
+
+            // the third call reaches the replacement threshold although the call count was reset
+            pool.call("count_vowels", "Hello World");
+            var replacement = pool.borrow();
+            assertThat(replacement).isNotSameAs(plugin);
+            assertThat(replacement.lifetimeCallCount()).isZero();
+            pool.release(replacement);
+        }
+    }
+
+    @Test
+    public void shouldEvictIdleInstancesAboveMinimum() throws InterruptedException {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var pool = new PluginPool(manifest, false, null, 1, 3).withIdleTimeout(Duration.ofMillis(50))) {
+            var first = pool.borrow();
+            var second = pool.borrow();
+            pool.release(first);
+            pool.release(second);
+            assertThat(pool.size()).isEqualTo(2);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.size() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(pool.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new PluginPool(() -> null, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PluginPool(() -> null, 0, 0));
+    }
+}
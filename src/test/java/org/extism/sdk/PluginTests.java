@@ -7,7 +7,17 @@ import org.extism.sdk.wasm.UrlWasmSource;
 import org.extism.sdk.wasm.WasmSourceResolver;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.extism.sdk.TestWasmSources.CODE;
@@ -150,6 +160,304 @@ public class PluginTests {
         }
     }
 
+    @Test
+    public void shouldReturnOutputAsReadOnlyBufferWithoutCopy() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var buffer = plugin.callForBuffer("count_vowels", input);
+            assertThat(buffer.isReadOnly()).isTrue();
+            assertThat(buffer.isDirect()).isTrue();
+            assertThat(StandardCharsets.UTF_8.decode(buffer).toString()).contains("\"count\":3");
+            assertThat(plugin.outputBuffer().remaining()).isEqualTo(plugin.call("count_vowels", input).length);
+        }
+    }
+
+    @Test
+    public void shouldStreamOutputToOutputStreamAndChannel() throws IOException {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var stream = new ByteArrayOutputStream();
+            long written = plugin.call("count_vowels", input, stream);
+            assertThat(written).isEqualTo(stream.size());
+            assertThat(stream.toString(StandardCharsets.UTF_8)).contains("\"total\":3");
+
+            var channelTarget = new ByteArrayOutputStream();
+            written = plugin.call("count_vowels", input, Channels.newChannel(channelTarget));
+            assertThat(written).isEqualTo(channelTarget.size());
+            assertThat(channelTarget.toString(StandardCharsets.UTF_8)).contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionWithDirectAndHeapByteBuffers() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = "xxHello Worldxx".getBytes(StandardCharsets.UTF_8);
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var direct = ByteBuffer.allocateDirect(input.length).put(input).flip().position(2).limit(input.length - 2);
+            var output = new String(plugin.call("count_vowels", direct), StandardCharsets.UTF_8);
+            assertThat(output).contains("\"count\":3");
+            assertThat(direct.position()).isEqualTo(2);
+
+            var heap = ByteBuffer.wrap(input, 2, input.length - 4).asReadOnlyBuffer();
+            output = StandardCharsets.UTF_8.decode(plugin.callForBuffer("count_vowels", heap)).toString();
+            assertThat(output).contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionWithLargeHeapInput() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = new byte[8 * 1024 * 1024];
+        Arrays.fill(input, (byte) 'a');
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var output = new String(plugin.call("count_vowels", input), StandardCharsets.UTF_8);
+            assertThat(output).contains("\"count\":" + input.length);
+        }
+    }
+
+    @Test
+    public void shouldInvokePreparedFunctionMultipleTimes() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            assertThat(plugin.functionExists("count_vowels")).isTrue();
+            assertThat(plugin.functionExists("unknown")).isFalse();
+
+            var countVowels = plugin.function("count_vowels");
+            assertThat(countVowels.name()).isEqualTo("count_vowels");
+            assertThat(countVowels.call("Hello World")).contains("\"total\":3");
+            assertThat(new String(countVowels.call("Hello World".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8))
+                    .contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldFailToPrepareUnknownFunction() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var e = assertThrows(ExtismException.class, () -> plugin.function("unknown"));
+            assertThat(e.getMessage()).isEqualTo("Function not found: unknown");
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionWithinTimeout() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var output = plugin.call("count_vowels", input, Duration.ofSeconds(30));
+            assertThat(new String(output, StandardCharsets.UTF_8)).contains("\"count\":3");
+
+            // the completed deadline must not cancel later calls
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldNotStartCallWhenThreadIsInterrupted() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(ExtismException.class, () -> plugin.call("count_vowels", new byte[0], Duration.ofSeconds(30)));
+                assertThat(Thread.currentThread().isInterrupted()).isTrue();
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionAsynchronously() throws Exception {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var output = plugin.callAsync("count_vowels", "Hello World".getBytes(StandardCharsets.UTF_8))
+                    .get(30, TimeUnit.SECONDS);
+            assertThat(new String(output, StandardCharsets.UTF_8)).contains("\"count\":3");
+
+            var failed = plugin.callAsync("unknown", null, Runnable::run);
+            var e = assertThrows(ExecutionException.class, failed::get);
+            assertThat(e.getCause()).isInstanceOf(ExtismException.class);
+        }
+    }
+
+    @Test
+    public void shouldSkipAsynchronousCallCancelledBeforeItStarted() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var pending = new ArrayList<Runnable>();
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var future = plugin.callAsync("count_vowels", "Hello World".getBytes(StandardCharsets.UTF_8), pending::add);
+            assertThat(future.cancel(true)).isTrue();
+
+            pending.forEach(Runnable::run);
+            assertThat(future.isCancelled()).isTrue();
+
+            // the cancelled call never ran, so the plugin state is untouched
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"total\":3");
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionWithCodec() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            // the input is encoded as a JSON string, so the quotes are part of it
+            VowelCount output = plugin.call("count_vowels", "Hello World", Codec.json(String.class, VowelCount.class));
+            assertThat(output.count).isEqualTo(3);
+            assertThat(output.vowels).isEqualTo("aeiouAEIOU");
+
+            assertThat(plugin.call("count_vowels", "a".repeat(10_000), Codec.utf8())).contains("\"count\":10000");
+        }
+    }
+
+    static class VowelCount {
+        int count;
+        int total;
+        String vowels;
+    }
+
+    @Test
+    public void shouldInvokeFunctionWithStreams() throws IOException {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var out = new ByteArrayOutputStream();
+
+        try (var plugin = new Plugin(manifest, false, ExtismStreams.hostFunctions())) {
+            // count_vowels does not import the stream functions, so it neither reads nor writes
+            long written = plugin.callStreaming("count_vowels",
+                    Channels.newChannel(new ByteArrayInputStream(new byte[1024])), Channels.newChannel(out));
+            assertThat(written).isZero();
+            assertThat(out.size()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldFreePluginOnlyOnce() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var plugin = new Plugin(manifest, false, null);
+        long live = Extism.nativeResourceStats().livePlugins();
+
+        plugin.free();
+        plugin.close();
+        assertThat(Extism.nativeResourceStats().livePlugins()).isEqualTo(live - 1);
+        assertThrows(ExtismException.class, () -> plugin.call("count_vowels", "Hello World"));
+    }
+
+    @Test
+    public void shouldValidateCallTimeout() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var input = "Hello World".getBytes(StandardCharsets.UTF_8);
+            assertThrows(IllegalArgumentException.class, () -> plugin.call("count_vowels", input, Duration.ofMillis(-1)));
+            // too large to be represented in nanoseconds, so it never expires
+            var output = plugin.call("count_vowels", input, Duration.ofSeconds(Long.MAX_VALUE));
+            assertThat(new String(output, StandardCharsets.UTF_8)).contains("\"total\":3");
+        }
+    }
+
+    @Test
+    public void shouldRejectUseAfterFree() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var plugin = new Plugin(manifest, false, null);
+        plugin.call("count_vowels", "Hello World");
+        var cancelHandle = plugin.cancelHandle();
+        assertThat(cancelHandle).isNotNull();
+
+        plugin.free();
+        assertThrows(ExtismException.class, plugin::reset);
+        assertThrows(ExtismException.class, () -> plugin.functionExists("count_vowels"));
+        assertThrows(ExtismException.class, () -> plugin.updateConfig("{}"));
+        assertThrows(ExtismException.class, plugin::cancelHandle);
+        assertThrows(ExtismException.class, plugin::outputBuffer);
+    }
+
+    @Test
+    public void shouldFreePluginRightAfterTimedOutCall() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var input = "a".repeat(4 * 1024 * 1024);
+
+        for (int i = 0; i < 20; i++) {
+            var plugin = new Plugin(manifest, false, null);
+            try {
+                plugin.call("count_vowels", input.getBytes(StandardCharsets.UTF_8), Duration.ofNanos(1));
+            } catch (ExtismException e) {
+                assertThat(e).hasMessageContaining("timed out");
+            }
+            // the timer must be done with the cancel handle once the call returned
+            plugin.free();
+        }
+    }
+
+    @Test
+    public void shouldResetPluginState() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"total\":3");
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"total\":6");
+            assertThat(plugin.callCount()).isEqualTo(2);
+            assertThat(plugin.peakPayloadBytes()).isGreaterThan(11);
+
+            assertThat(plugin.reset()).isTrue();
+            assertThat(plugin.callCount()).isZero();
+            assertThat(plugin.call("count_vowels", "Hello World")).contains("\"total\":3");
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionForEachInputOfBatch() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var inputs = List.of(
+                "Hello World".getBytes(StandardCharsets.UTF_8),
+                new byte[0],
+                "aaaa".getBytes(StandardCharsets.UTF_8));
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var result = plugin.callBatch("count_vowels", inputs);
+            assertThat(result.size()).isEqualTo(3);
+            assertThat(result.failureCount()).isZero();
+            assertThat(new String(result.outputBytes(0), StandardCharsets.UTF_8)).contains("\"count\":3");
+            assertThat(new String(result.outputBytes(1), StandardCharsets.UTF_8)).contains("\"count\":0");
+            assertThat(new String(result.outputBytes(2), StandardCharsets.UTF_8)).contains("\"count\":4");
+            assertThat(result.offset(3)).isEqualTo(result.outputs().remaining());
+            assertThat(result.output(2).remaining()).isEqualTo(result.offset(3) - result.offset(2));
+        }
+    }
+
+    @Test
+    public void shouldInvokeFunctionForEachBufferOfBatch() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        var direct = ByteBuffer.allocateDirect(16).put("Hello World".getBytes(StandardCharsets.UTF_8)).flip();
+        var heap = ByteBuffer.wrap("Hello World".getBytes(StandardCharsets.UTF_8));
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            var result = plugin.callBatch("count_vowels", new ByteBuffer[]{direct, heap});
+            assertThat(result.isSuccess(0)).isTrue();
+            assertThat(result.isSuccess(1)).isTrue();
+            assertThat(StandardCharsets.UTF_8.decode(result.output(1)).toString()).contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldFailBatchForUnknownFunction() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+
+        try (var plugin = new Plugin(manifest, false, null)) {
+            assertThrows(ExtismException.class, () -> plugin.callBatch("unknown", List.of(new byte[0])));
+        }
+    }
+
     @Test
     public void shouldAllowInvokeHostFunctionFromPDK() {
         var parametersTypes = new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64};
@@ -197,6 +505,34 @@ public class PluginTests {
         }
     }
 
+    @Test
+    public void shouldShareHostFunctionLibraryAcrossPlugins() {
+        var types = new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64};
+        var calls = new AtomicInteger();
+        var helloWorld = new HostFunction<>("hello_world", types, types, (ExtismRawFunction) (plugin, params, returns) -> {
+            calls.incrementAndGet();
+            plugin.returnBytes(returns, 0, "test".getBytes(StandardCharsets.UTF_8));
+        }).withNamespace("extism:host/user");
+
+        var manifest = new Manifest(Arrays.asList(CODE.pathWasmFunctionsSource()));
+        var library = new HostFunctionLibrary(helloWorld);
+        try (library; var compiled = library.compile(manifest, true)) {
+            var first = library.newPlugin(manifest, true);
+            var second = compiled.instantiate();
+            assertThat(library.referenceCount()).isEqualTo(3);
+
+            assertThat(first.call("count_vowels", "this is a test")).isEqualTo("test");
+            assertThat(second.call("count_vowels", "this is a test")).isEqualTo("test");
+            assertThat(calls).hasValue(2);
+
+            first.close();
+            second.close();
+            assertThat(library.referenceCount()).isEqualTo(2);
+        }
+        assertThat(library.referenceCount()).isZero();
+        assertThrows(ExtismException.class, () -> library.newPlugin(manifest, true));
+    }
+
     @Test
     public void shouldAllowInvokeHostFunctionFromPDKUsingPTR() {
         var parametersTypes = new LibExtism.ExtismValType[]{LibExtism.ExtismValType.PTR};
@@ -292,6 +628,32 @@ public class PluginTests {
     }
 
 
+    @Test
+    public void shouldAllowInvokeRawHostFunctionUsingMemoryViews() {
+        var received = new StringBuilder();
+
+        ExtismRawFunction helloWorldFunction = (plugin, params, returns) -> {
+            var input = plugin.byteView(params.getI64(0));
+            received.append(StandardCharsets.UTF_8.decode(input));
+            plugin.returnBytes(returns, 0, "test".getBytes(StandardCharsets.UTF_8));
+        };
+
+        HostFunction helloWorld = new HostFunction<>(
+                "hello_world",
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                new LibExtism.ExtismValType[]{LibExtism.ExtismValType.I64},
+                helloWorldFunction
+        );
+
+        Manifest manifest = new Manifest(Arrays.asList(CODE.pathWasmFunctionsSource()));
+
+        try (var plugin = new Plugin(manifest, true, new HostFunction[]{helloWorld})) {
+            var output = plugin.call("count_vowels", "this is a test");
+            assertThat(output).isEqualTo("test");
+            assertThat(received.toString()).isNotEmpty();
+        }
+    }
+
     @Test
     public void shouldFailToInvokeUnknownHostFunction() {
         Manifest manifest = new Manifest(Arrays.asList(CODE.pathWasmFunctionsSource()));
@@ -0,0 +1,70 @@
+package org.extism.sdk;
+
+import org.extism.sdk.manifest.Manifest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardedPluginTests {
+
+    @Test
+    public void shouldSpreadKeysOverShards() {
+        var counts = new int[8];
+        for (int i = 0; i < 8000; i++) {
+            counts[ShardedPlugin.shard("session-" + i, 8)]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(800, 1200);
+        }
+    }
+
+    @Test
+    public void shouldMoveFewKeysWhenAddingShard() {
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            int before = ShardedPlugin.shard("session-" + i, 8);
+            int after = ShardedPlugin.shard("session-" + i, 9);
+            if (before != after) {
+                assertThat(after).isEqualTo(8);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(50, 200);
+    }
+
+    @Test
+    public void shouldRouteKeyToSameInstance() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var sharded = new ShardedPlugin(manifest, false, null, 4)) {
+            // the vowel count accumulates in the instance, so the total shows which instance served the call
+            assertThat(sharded.call("alice", "count_vowels", "Hello World")).contains("\"total\":3");
+            assertThat(sharded.call("alice", "count_vowels", "Hello World")).contains("\"total\":6");
+            assertThat(sharded.queueDepth(sharded.shardFor("alice"))).isZero();
+        }
+    }
+
+    @Test
+    public void shouldRecycleSingleShard() {
+        var manifest = new Manifest(CODE.pathWasmSource());
+        try (var sharded = new ShardedPlugin(manifest, false, null, 64)) {
+            String other = "bob";
+            for (int i = 0; sharded.shardFor(other) == sharded.shardFor("alice"); i++) {
+                other = "bob-" + i;
+            }
+
+            sharded.call("alice", "count_vowels", "Hello World");
+            sharded.call(other, "count_vowels", "Hello World");
+            sharded.recycle(sharded.shardFor("alice"));
+
+            assertThat(sharded.call("alice", "count_vowels", "Hello World")).contains("\"total\":3");
+            assertThat(sharded.call(other, "count_vowels", "Hello World")).contains("\"total\":6");
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedPlugin(() -> null, 0));
+    }
+}
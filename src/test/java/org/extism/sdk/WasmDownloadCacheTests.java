@@ -0,0 +1,143 @@
+package org.extism.sdk;
+
+import com.sun.net.httpserver.HttpServer;
+import org.extism.sdk.manifest.Manifest;
+import org.extism.sdk.support.Hashing;
+import org.extism.sdk.wasm.UrlWasmSource;
+import org.extism.sdk.wasm.WasmDownloadCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.org.webcompere.modelassert.json.JsonAssertions.assertJson;
+
+public class WasmDownloadCacheTests {
+
+    private static final String ETAG = "\"code-v1\"";
+
+    private HttpServer server;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private byte[] wasm;
+
+    private String url;
+
+    private Path cacheDirectory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        wasm = Files.readAllBytes(CODE.getWasmFilePath());
+        cacheDirectory = Files.createTempDirectory("extism-downloads");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/code.wasm", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                downloads.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, wasm.length);
+                exchange.getResponseBody().write(wasm);
+            }
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/code.wasm";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        WasmDownloadCache.setDefault(null);
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldDownloadEachUrlOnce() throws IOException {
+        var cache = new WasmDownloadCache(cacheDirectory);
+
+        var first = cache.resolve(UrlWasmSource.fromUrl(url));
+        var second = cache.resolve(UrlWasmSource.fromUrl(url));
+
+        assertThat(downloads.get()).isEqualTo(1);
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(first.hash()).isEqualTo(Hashing.sha256HexDigest(wasm));
+        assertThat(Files.readAllBytes(Path.of(first.path()))).isEqualTo(wasm);
+    }
+
+    @Test
+    public void shouldRevalidatePreviousDownload() {
+        new WasmDownloadCache(cacheDirectory).resolve(UrlWasmSource.fromUrl(url));
+
+        var restarted = new WasmDownloadCache(cacheDirectory);
+        var source = restarted.resolve(UrlWasmSource.fromUrl(url));
+
+        assertThat(downloads.get()).isEqualTo(1);
+        assertThat(notModified.get()).isEqualTo(1);
+        assertThat(source.hash()).isEqualTo(Hashing.sha256HexDigest(wasm));
+    }
+
+    @Test
+    public void shouldServeKnownHashWithoutRequest() {
+        var hash = Hashing.sha256HexDigest(wasm);
+        new WasmDownloadCache(cacheDirectory).resolve(UrlWasmSource.fromUrl(url));
+
+        var source = new WasmDownloadCache(cacheDirectory).resolve(new UrlWasmSource("code", url, hash));
+
+        assertThat(downloads.get() + notModified.get()).isEqualTo(1);
+        assertThat(source.name()).isEqualTo("code");
+    }
+
+    @Test
+    public void shouldRejectModuleWithUnexpectedHash() throws IOException {
+        var cache = new WasmDownloadCache(cacheDirectory);
+        var source = new UrlWasmSource("code", url, Hashing.sha256HexDigest(new byte[]{1}));
+
+        var e = assertThrows(ExtismException.class, () -> cache.resolve(source));
+        assertThat(e.getMessage()).contains("Hash mismatch");
+        try (var files = Files.list(cacheDirectory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".wasm"))).isEmpty();
+        }
+    }
+
+    @Test
+    public void shouldRejectMalformedHash() throws IOException {
+        var outside = Files.createTempFile(cacheDirectory.getParent(), "outside", ".wasm");
+        var name = outside.getFileName().toString();
+        var cache = new WasmDownloadCache(cacheDirectory);
+
+        for (var hash : new String[]{"../" + name.substring(0, name.length() - ".wasm".length()),
+                Hashing.sha256HexDigest(wasm).toUpperCase(), "abc"}) {
+            var e = assertThrows(ExtismException.class, () -> cache.resolve(new UrlWasmSource("code", url, hash)));
+            assertThat(e.getMessage()).contains("Invalid sha256 hash");
+        }
+        assertThat(downloads.get()).isZero();
+        Files.delete(outside);
+    }
+
+    @Test
+    public void shouldSerializeUrlSourceAsCachedPath() {
+        WasmDownloadCache.setDefault(new WasmDownloadCache(cacheDirectory));
+
+        var manifest = new Manifest(List.of(UrlWasmSource.fromUrl(url)));
+        var json = new String(manifest.toJsonBytes(), StandardCharsets.UTF_8);
+
+        assertJson(json).at("/wasm/0/url").isMissing();
+        assertJson(json).at("/wasm/0/path").isText(cacheDirectory.toAbsolutePath().normalize()
+                .resolve(Hashing.sha256HexDigest(wasm) + ".wasm").toString());
+    }
+}
@@ -0,0 +1,60 @@
+package org.extism.sdk;
+
+import org.extism.sdk.support.Hashing;
+import org.extism.sdk.wasm.PathWasmSource;
+import org.extism.sdk.wasm.WasmSourceResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.extism.sdk.TestWasmSources.CODE;
+
+public class WasmSourceResolverTests {
+
+    @Test
+    public void shouldEncodeDigestAsLowerCaseHex() {
+        assertThat(Hashing.sha256HexDigest("abc".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    public void shouldHashFileLikeItsBytes() throws IOException {
+        var bytes = Files.readAllBytes(CODE.getWasmFilePath());
+
+        assertThat(Hashing.sha256HexDigest(CODE.getWasmFilePath())).isEqualTo(Hashing.sha256HexDigest(bytes));
+    }
+
+    @Test
+    public void shouldRehashModifiedFile() throws IOException {
+        var file = Files.createTempFile("extism", ".wasm");
+        try {
+            var resolver = new WasmSourceResolver();
+            Files.write(file, new byte[]{1, 2, 3});
+            var first = resolver.resolve(file).hash();
+            assertThat(resolver.resolve(file).hash()).isEqualTo(first);
+
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+            assertThat(resolver.resolve(file).hash()).isEqualTo(Hashing.sha256HexDigest(new byte[]{1, 2, 3, 4}));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldResolveAllModulesOfDirectory() {
+        var sources = new WasmSourceResolver().resolveAll(Paths.get(TestWasmSources.WASM_LOCATION));
+
+        assertThat(sources.stream().map(PathWasmSource::name).collect(Collectors.toList()))
+                .containsExactly("code-functions.wasm", "code.wasm");
+        assertThat(sources.get(1).hash()).isEqualTo(CODE.byteArrayWasmSource().hash());
+        assertThat(Path.of(sources.get(1).path())).isAbsolute();
+    }
+}